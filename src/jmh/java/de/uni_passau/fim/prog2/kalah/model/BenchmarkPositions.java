@@ -0,0 +1,75 @@
+package de.uni_passau.fim.prog2.kalah.model;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Reproducible positions for the benchmarks, reached by random moves of both
+ * players from the start of a game.
+ */
+final class BenchmarkPositions {
+
+    /**
+     * The number of positions per benchmark, a power of two so that the
+     * benchmarks can cycle through them with a mask.
+     */
+    static final int COUNT = 16;
+
+    private static final int MAX_PLIES = 20;
+    private static final long RANDOM_SEED = 20230101L;
+
+    private BenchmarkPositions() throws InstantiationException {
+        throw new InstantiationException(
+                "BenchmarkPositions should not be constructed.");
+    }
+
+    /**
+     * Plays random games until enough positions are found in which the game
+     * is not over yet.
+     *
+     * @param pitsPerPlayer The number of pits per player.
+     * @param seedsPerPit   The initial number of seeds per pit.
+     * @param level         The level of the boards.
+     * @return {@link #COUNT} positions, the same for the same rules.
+     * @throws InterruptedException If the thread was interrupted.
+     */
+    static Kalah[] random(int pitsPerPlayer, int seedsPerPit, int level)
+            throws InterruptedException {
+        Random random = new Random(RANDOM_SEED);
+        Kalah[] positions = new Kalah[COUNT];
+        int found = 0;
+        while (found < COUNT) {
+            Kalah board = new Kalah(pitsPerPlayer, seedsPerPit, Player.HUMAN,
+                    level);
+            int plies = 1 + random.nextInt(MAX_PLIES);
+            for (int k = 0; k < plies && !board.isGameOver(); k++) {
+                int[] moves = moves(board);
+                board = (Kalah) board.simulateMove(
+                        moves[random.nextInt(moves.length)]).board();
+            }
+            if (!board.isGameOver()) {
+                positions[found++] = board;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Lists the possible moves of the player to move.
+     *
+     * @param board A board whose game is not over.
+     * @return The non-empty pits of the player to move.
+     */
+    static int[] moves(Board board) {
+        int pitsPerPlayer = board.getPitsPerPlayer();
+        int first = board.next() == Player.HUMAN ? 1 : pitsPerPlayer + 2;
+        int count = 0;
+        int[] moves = new int[pitsPerPlayer];
+        for (int pit = first; pit < first + pitsPerPlayer; pit++) {
+            if (board.getSeeds(pit) != 0) {
+                moves[count++] = pit;
+            }
+        }
+        return Arrays.copyOf(moves, count);
+    }
+}
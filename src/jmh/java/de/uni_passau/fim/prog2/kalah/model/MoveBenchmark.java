@@ -0,0 +1,126 @@
+package de.uni_passau.fim.prog2.kalah.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the operations on a single position: executing a move on a copy
+ * of the board or in place, copying the board, checking for the end of the
+ * game, evaluating a position and, as its most expensive term, scoring the
+ * possible captures. Every invocation works on the next of a few fixed
+ * positions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MoveBenchmark {
+
+    @Param({"4", "6", "8"})
+    public int pitsPerPlayer;
+
+    @Param({"3", "6"})
+    public int seedsPerPit;
+
+    private Kalah[] boards;
+    private SearchBoard[] positions;
+    private int[] moves;
+    private int next;
+
+    /**
+     * Creates the positions and picks a possible move in each.
+     *
+     * @throws InterruptedException If the thread was interrupted.
+     */
+    @Setup
+    public void setUp() throws InterruptedException {
+        boards = BenchmarkPositions.random(pitsPerPlayer, seedsPerPit, 1);
+        positions = new SearchBoard[boards.length];
+        moves = new int[boards.length];
+        for (int k = 0; k < boards.length; k++) {
+            positions[k] = boards[k].toSearchBoard();
+            int[] possible = BenchmarkPositions.moves(boards[k]);
+            moves[k] = possible[k % possible.length];
+        }
+    }
+
+    /**
+     * Executes a move on a copy of the board.
+     *
+     * @return The copy.
+     * @throws InterruptedException If the thread was interrupted.
+     */
+    @Benchmark
+    public Board simulateMove() throws InterruptedException {
+        int k = advance();
+        return boards[k].simulateMove(moves[k]).board();
+    }
+
+    /**
+     * Executes a move in place and takes it back.
+     *
+     * @return The pit the move ended in.
+     */
+    @Benchmark
+    public int makeUnmake() {
+        int k = advance();
+        SearchBoard position = positions[k];
+        long undo = position.make(moves[k]);
+        int target = SearchBoard.targetPit(undo);
+        position.unmake(undo);
+        return target;
+    }
+
+    /**
+     * Copies the board.
+     *
+     * @return The copy.
+     */
+    @Benchmark
+    public Board cloneBoard() {
+        return boards[advance()].clone();
+    }
+
+    /**
+     * Checks whether the game is over.
+     *
+     * @return Whether the game is over.
+     */
+    @Benchmark
+    public boolean isGameOver() {
+        return boards[advance()].isGameOver();
+    }
+
+    /**
+     * Evaluates the position without looking at any moves.
+     *
+     * @return The evaluation.
+     */
+    @Benchmark
+    public double evaluate() {
+        return positions[advance()].evaluate(1);
+    }
+
+    /**
+     * Scores the seeds both players could capture, the term of the
+     * evaluation which looks at every pit.
+     *
+     * @return The score of the captures.
+     */
+    @Benchmark
+    public double scoreC() {
+        return positions[advance()].scoreC();
+    }
+
+    private int advance() {
+        next = (next + 1) & (BenchmarkPositions.COUNT - 1);
+        return next;
+    }
+}
@@ -0,0 +1,78 @@
+package de.uni_passau.fim.prog2.kalah.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the machine needs to score all moves of a position at a
+ * level. The search runs on the calling thread without opening book, and
+ * every invocation starts with an empty transposition table, so it does not
+ * profit from the invocations before. The tables are allocated once per
+ * trial and only cleared between invocations, so the allocation rate
+ * reported by the profiler is the one of the search itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark {
+
+    private static final int TABLE_SIZE_MB = 1;
+
+    @Param({"4", "6"})
+    public int pitsPerPlayer;
+
+    @Param({"3", "6"})
+    public int seedsPerPit;
+
+    @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9", "10"})
+    public int level;
+
+    private Kalah[] boards;
+    private int next;
+
+    /**
+     * Creates the positions, each with a transposition table of its own.
+     *
+     * @throws InterruptedException If the thread was interrupted.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        boards = BenchmarkPositions.random(pitsPerPlayer, seedsPerPit,
+                level);
+        for (Kalah board : boards) {
+            board.setSearchPool(null);
+            board.setOpeningBook(false);
+            board.setTranspositionTableSize(TABLE_SIZE_MB);
+        }
+    }
+
+    /**
+     * Moves on to the next position and clears its transposition table.
+     */
+    @Setup(Level.Invocation)
+    public void nextPosition() {
+        next = (next + 1) & (BenchmarkPositions.COUNT - 1);
+        boards[next].clearTranspositionTable();
+    }
+
+    /**
+     * Scores all moves of the position.
+     *
+     * @return The ranked moves.
+     * @throws InterruptedException If the thread was interrupted.
+     */
+    @Benchmark
+    public List<RankedMove> rankMoves() throws InterruptedException {
+        return boards[next].rankMoves();
+    }
+}
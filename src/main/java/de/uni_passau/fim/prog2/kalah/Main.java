@@ -1,13 +1,44 @@
 package de.uni_passau.fim.prog2.kalah;
 
 import de.uni_passau.fim.prog2.kalah.controller.Controller;
+import de.uni_passau.fim.prog2.kalah.model.BoardType;
+import de.uni_passau.fim.prog2.kalah.model.EndgameTable;
 import de.uni_passau.fim.prog2.kalah.model.Model;
+import de.uni_passau.fim.prog2.kalah.model.SearchCache;
 import de.uni_passau.fim.prog2.kalah.view.View;
 
+import javax.management.JMException;
+import javax.swing.SwingUtilities;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
 /**
  * Contains the entrypoint to the program.
  */
 public final class Main {
+    /**
+     * The system property naming the file in which the machine remembers its
+     * moves across restarts. Without it, nothing is remembered.
+     */
+    public static final String SEARCH_CACHE_PROPERTY = "kalah.searchCache";
+
+    /**
+     * The system property naming the file of an endgame table written by
+     * {@code EndgameTableBuilder}, which the machine consults in games with
+     * as many pits as the table. Without it, the machine always searches.
+     */
+    public static final String ENDGAME_TABLE_PROPERTY = "kalah.endgameTable";
+
+    /**
+     * The system property naming the implementation of the board, one of
+     * the constants of {@link BoardType} in any case. Without it, the board
+     * keeps its seeds in an array.
+     */
+    public static final String BOARD_PROPERTY = "kalah.board";
+
+    private static final int SEARCH_CACHE_MB = 64;
+
     private Main() throws InstantiationException {
         throw new InstantiationException("Main should not be constructed.");
     }
@@ -18,8 +49,49 @@ public final class Main {
      * @param args command line arguments
      */
     public static void main(String[] args) {
-        Model model = new Model();
-        View view = new View();
-        Controller controller = new Controller(model, view);
+        BoardType boardType = BoardType.ARRAY;
+        String boardName = System.getProperty(BOARD_PROPERTY);
+        if (boardName != null) {
+            try {
+                boardType = BoardType.valueOf(
+                        boardName.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Unknown board implementation: "
+                        + boardName);
+            }
+        }
+        Model model = new Model(boardType);
+        String cacheFile = System.getProperty(SEARCH_CACHE_PROPERTY);
+        if (cacheFile != null) {
+            try {
+                SearchCache cache = SearchCache.open(Path.of(cacheFile),
+                        SEARCH_CACHE_MB);
+                model.getBoard().setSearchCache(cache);
+                model.getSearchMonitor().setSearchCache(cache);
+                Runtime.getRuntime().addShutdownHook(
+                        new Thread(cache::flush));
+            } catch (IOException e) {
+                System.err.println("Search cache not available: "
+                        + e.getMessage());
+            }
+        }
+        String tableFile = System.getProperty(ENDGAME_TABLE_PROPERTY);
+        if (tableFile != null) {
+            try {
+                model.getBoard().setEndgameTable(
+                        EndgameTable.load(Path.of(tableFile)));
+            } catch (IOException e) {
+                System.err.println("Endgame table not available: "
+                        + e.getMessage());
+            }
+        }
+        try {
+            model.getSearchMonitor().register();
+        } catch (JMException e) {
+            System.err.println("Search statistics not available via JMX: "
+                    + e.getMessage());
+        }
+        // Swing components are only created and used on its own thread
+        SwingUtilities.invokeLater(() -> new Controller(model, new View()));
     }
 }
@@ -2,7 +2,6 @@ package de.uni_passau.fim.prog2.kalah.controller;
 
 import de.uni_passau.fim.prog2.kalah.model.Board;
 import de.uni_passau.fim.prog2.kalah.model.GameSettings;
-import de.uni_passau.fim.prog2.kalah.model.Kalah;
 import de.uni_passau.fim.prog2.kalah.model.Model;
 import de.uni_passau.fim.prog2.kalah.model.Player;
 
@@ -45,9 +44,10 @@ public class ButtonControls implements ActionListener {
                 restartGame(false);
             }
             case "UNDO" -> {
-                controller.stopWorkerThread();
+                controller.cancelMachineMove();
                 model.setBoard(controller.popHistory());
                 controller.reload();
+                controller.ponder();
             }
             default -> {
             }
@@ -55,25 +55,31 @@ public class ButtonControls implements ActionListener {
     }
 
     private void restartGame(boolean switching){
-        controller.stopWorkerThread();
+        controller.cancelMachineMove();
         controller.clearHistory();
         Board oldModel = controller.getModel().getBoard();
         GameSettings settings = controller.getSelectedSettings();
         Board newModel;
         if (switching){
-            newModel = new Kalah(oldModel.getPitsPerPlayer(),
+            newModel = controller.getModel().newBoard(
+                    oldModel.getPitsPerPlayer(),
                     oldModel.getSeedsPerPit(),
                     oldModel.getOpeningPlayer().getOpposite(),
                     settings.level());
         }else{
-            newModel = new Kalah(settings.pitsPerPlayer(),
+            newModel = controller.getModel().newBoard(settings.pitsPerPlayer(),
                     settings.seedsPerPit(), oldModel.getOpeningPlayer(),
                     settings.level());
         }
+        newModel.setThinkingTime(settings.thinkingTime());
+        newModel.setSearchCache(oldModel.getSearchCache());
+        newModel.setEndgameTable(oldModel.getEndgameTable());
         controller.getModel().setBoard(newModel);
         controller.fullReload();
         if(controller.getModel().getBoard().next() == Player.COMPUTER){
             controller.instantiateMachineMove();
+        } else {
+            controller.ponder();
         }
     }
 }
@@ -4,13 +4,16 @@ import de.uni_passau.fim.prog2.kalah.model.Board;
 import de.uni_passau.fim.prog2.kalah.model.GameSettings;
 import de.uni_passau.fim.prog2.kalah.model.Model;
 import de.uni_passau.fim.prog2.kalah.model.Player;
+import de.uni_passau.fim.prog2.kalah.model.SearchStatistics;
 import de.uni_passau.fim.prog2.kalah.view.NotificationType;
-import de.uni_passau.fim.prog2.kalah.view.PitLabel;
 import de.uni_passau.fim.prog2.kalah.view.View;
 
 import javax.swing.JButton;
 import java.awt.event.KeyEvent;
 import java.util.Stack;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Controller class creating and assigning all listeners and managing threads.
@@ -21,7 +24,11 @@ public class Controller {
     private final PitMouseListener pml;
     private final ButtonControls bc;
     private final LevelChangeListener lcl;
-    private Thread workerThread;
+    private final ExecutorService machineExecutor;
+    private MachineMoveTask machineMove;
+    private Future<?> machineMoveResult;
+    private final Ponderer ponderer;
+    private final ViewUpdater updater;
     private final Stack<Board> gameHistory;
     private JButton undoButton;
 
@@ -37,8 +44,16 @@ public class Controller {
         pml = new PitMouseListener(this);
         bc = new ButtonControls(this);
         lcl = new LevelChangeListener(this);
+        ponderer = new Ponderer();
+        updater = new ViewUpdater(this, view);
+        machineExecutor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "Machine move");
+            thread.setDaemon(true);
+            return thread;
+        });
         initListeners();
         gameHistory = new Stack<>();
+        ponder();
     }
 
     /**
@@ -60,42 +75,61 @@ public class Controller {
             }
         }
         view.getLevelControl().addActionListener(lcl);
+        view.getTimeControl().addActionListener(lcl);
+        view.getBoardComponent().addMouseListener(pml);
         fullReload();
     }
 
     /**
-     * Reassigns listeners to all pit labels.
+     * Shows a new board, which may have another number of pits.
      */
     public void fullReload() {
         view.createBoardPanel(model.getBoard());
-        for (PitLabel pl : view.getAllPitLabels()) {
-            pl.addMouseListener(pml);
-        }
     }
 
     /**
-     * Saves a handle to the thread that currently computes a machine move.
-     *
-     * @param workerThread The thread object calculating a machine move.
+     * Cancels the machine's turn which is currently calculated, if any.
+     * Once this method returns, the cancelled turn no longer changes the
+     * model.
      */
-    public void setWorkerThread(Thread workerThread) {
-        this.workerThread = workerThread;
+    public synchronized void cancelMachineMove() {
+        ponderer.stop();
+        if (machineMove != null) {
+            machineMoveResult.cancel(true);
+            machineMove = null;
+            machineMoveResult = null;
+        }
     }
 
     /**
-     * Removes the handle to the thread that currently computes a machine move.
+     * Sets the board of the model to a move of the machine, unless the turn
+     * which calculated the move was cancelled.
+     *
+     * @param task  The machine's turn.
+     * @param board The board with the machine's move executed.
+     * @return {@code true} if the move was accepted, {@code false} if the
+     * turn was cancelled.
      */
-    public void unsetWorkerThread() {
-        this.workerThread = null;
+    synchronized boolean commitMachineMove(MachineMoveTask task,
+                                           Board board) {
+        if (task != machineMove) {
+            return false;
+        }
+        model.setBoard(board);
+        return true;
     }
 
     /**
-     * Stops executing the thread currently calculating a machine move.
+     * Marks the end of a machine's turn, after which the human is to move
+     * unless the turn was cancelled or the game is over.
+     *
+     * @param task The machine's turn.
      */
-    public void stopWorkerThread() {
-        if (workerThread != null) {
-            workerThread.interrupt();
-            unsetWorkerThread();
+    synchronized void finishMachineMove(MachineMoveTask task) {
+        if (task == machineMove) {
+            machineMove = null;
+            machineMoveResult = null;
+            ponder();
         }
     }
 
@@ -149,19 +183,32 @@ public class Controller {
     }
 
     /**
-     * Update the application state.
+     * Update the application state. May be called from any thread, the view
+     * is updated on the event dispatch thread within a frame.
      */
     public void reload() {
-        view.updatePits(model.getBoard());
+        updater.reload();
+    }
+
+    /**
+     * Records the statistics of a machine move and shows them in the view.
+     * May be called from any thread.
+     *
+     * @param statistics The statistics of the move.
+     */
+    public void showStatistics(SearchStatistics statistics) {
+        model.getSearchMonitor().record(statistics);
+        updater.showStatistics(statistics);
     }
 
     /**
-     * Trigger a notification inside the view.
+     * Trigger a notification inside the view. May be called from any
+     * thread, which does not wait for the notification to be closed.
      *
      * @param type The type of event that happened.
      */
     public void showNotification(NotificationType type) {
-        view.showNotification(type, model.getBoard());
+        updater.showNotification(type, model.getBoard());
     }
 
     /**
@@ -174,13 +221,41 @@ public class Controller {
     }
 
     /**
-     * Execute a machine move inside new thread.
+     * Execute the machine's turn on the machine's thread. A turn which is
+     * still running is cancelled.
      */
     public void instantiateMachineMove() {
-        MachineMoveThread machineMove
-                = new MachineMoveThread(this);
-        setWorkerThread(machineMove);
-        machineMove.start();
+        ponderer.stop();
+        startMachineMove(null);
+    }
+
+    /**
+     * Execute the machine's reply to a move of the human on the machine's
+     * thread. The reply is taken over from the search started while the
+     * human was thinking, if there is one.
+     *
+     * @param position The board before the move of the human.
+     * @param pit      The pit the human moved.
+     */
+    public void instantiateMachineMove(Board position, int pit) {
+        startMachineMove(ponderer.take(position, pit));
+    }
+
+    private synchronized void startMachineMove(Future<Board> pondered) {
+        if (machineMove != null) {
+            machineMoveResult.cancel(true);
+        }
+        machineMove = new MachineMoveTask(this, model.getBoard(), pondered);
+        machineMoveResult = machineExecutor.submit(machineMove);
+    }
+
+    /**
+     * Starts searching the machine's replies to all moves of the human in
+     * the background if the human is to move, and cancels searches of
+     * earlier positions.
+     */
+    public void ponder() {
+        ponderer.start(model.getBoard());
     }
 
     /**
@@ -2,14 +2,15 @@ package de.uni_passau.fim.prog2.kalah.controller;
 
 import de.uni_passau.fim.prog2.kalah.model.Model;
 
+import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.Objects;
 
 /**
- * Listener that reacts to changes in the game difficulty, and updates the
- * model accordingly.
+ * Listener that reacts to changes in the game difficulty or the thinking time,
+ * and updates the model accordingly.
  */
 public class LevelChangeListener implements ActionListener {
     private Controller controller;
@@ -34,6 +35,12 @@ public class LevelChangeListener implements ActionListener {
         if (Objects.equals(e.getActionCommand(), "comboBoxChanged")) {
             int level = (int) ((JComboBox) e.getSource()).getSelectedItem();
             model.getBoard().setLevel(level);
+        } else if (e.getSource() instanceof JCheckBox) {
+            long thinkingTime
+                    = controller.getSelectedSettings().thinkingTime();
+            model.getBoard().setThinkingTime(thinkingTime);
         }
+        // replies searched in advance used the previous settings
+        controller.ponder();
     }
 }
@@ -0,0 +1,121 @@
+package de.uni_passau.fim.prog2.kalah.controller;
+
+import de.uni_passau.fim.prog2.kalah.model.Board;
+import de.uni_passau.fim.prog2.kalah.model.Player;
+import de.uni_passau.fim.prog2.kalah.view.NotificationType;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Task calculating the moves of the machine player until the human is to
+ * move or the game is over, and updating all states accordingly. The task
+ * works on the board it was created with and hands every move to the
+ * controller, which only accepts it as long as the task was not cancelled.
+ */
+public class MachineMoveTask implements Runnable {
+
+    /**
+     * The minimal duration of a machine move in milliseconds, so the human
+     * can follow the moves. The machine uses this time to think.
+     */
+    private static final long MOVE_DURATION = 500;
+
+    private final Controller controller;
+    private final Board position;
+
+    /**
+     * The search of the machine's first move started while the human was
+     * thinking, {@code null} if there is none.
+     */
+    private Future<Board> pondered;
+
+    /**
+     * Creates a task for the machine's turn on a board.
+     *
+     * @param controller Corresponding controller of the application.
+     * @param position   The board on which the machine's turn starts.
+     * @param pondered   The search of the machine's first move, or
+     *                   {@code null} to search when the task runs.
+     */
+    public MachineMoveTask(Controller controller, Board position,
+                           Future<Board> pondered) {
+        this.controller = controller;
+        this.position = position;
+        this.pondered = pondered;
+    }
+
+    /**
+     * Plays the machine's moves. If the task is cancelled, the search stops
+     * within a few thousand nodes, and its result is discarded. If the
+     * search fails, the failure is logged and the user notified, and the
+     * model stays as it is.
+     */
+    @Override
+    public void run() {
+        try {
+            if (!controller.checkGameOver()) {
+                if (position.next() == Player.COMPUTER) {
+                    play();
+                } else {
+                    controller.showNotification(
+                            NotificationType.COMPUTER_MISS);
+                }
+            }
+        } catch (InterruptedException ignored) {
+            // cancelled, the model stays as it is
+        } catch (RuntimeException e) {
+            // the executor would swallow the exception without a trace
+            System.err.println("Machine move failed: " + e);
+            controller.showNotification(NotificationType.MACHINE_FAILURE);
+        } finally {
+            if (pondered != null) {
+                pondered.cancel(true);
+            }
+            controller.finishMachineMove(this);
+        }
+    }
+
+    private void play() throws InterruptedException {
+        Board board = position;
+        while (true) {
+            long start = System.currentTimeMillis();
+            board = search(board);
+            long rest = MOVE_DURATION - (System.currentTimeMillis() - start);
+            if (rest > 0) {
+                Thread.sleep(rest);
+            }
+            if (!controller.commitMachineMove(this, board)) {
+                return;
+            }
+            controller.showStatistics(board.getSearchStatistics());
+            controller.reload();
+            if (controller.checkGameOver()
+                    || board.next() != Player.COMPUTER) {
+                return;
+            }
+            controller.showNotification(NotificationType.HUMAN_MISS);
+        }
+    }
+
+    /**
+     * Searches the machine's move, or waits for the search started in
+     * advance if that one is still usable.
+     */
+    private Board search(Board board) throws InterruptedException {
+        Future<Board> reply = pondered;
+        pondered = null;
+        if (reply != null) {
+            try {
+                return reply.get();
+            } catch (InterruptedException e) {
+                reply.cancel(true);
+                throw e;
+            } catch (CancellationException | ExecutionException e) {
+                // search again below
+            }
+        }
+        return board.machineMove();
+    }
+}
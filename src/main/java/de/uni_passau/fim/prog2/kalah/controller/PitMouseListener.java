@@ -1,16 +1,17 @@
 package de.uni_passau.fim.prog2.kalah.controller;
 
+import de.uni_passau.fim.prog2.kalah.model.Board;
 import de.uni_passau.fim.prog2.kalah.model.IllegalMoveException;
 import de.uni_passau.fim.prog2.kalah.model.Model;
 import de.uni_passau.fim.prog2.kalah.model.Player;
 import de.uni_passau.fim.prog2.kalah.view.NotificationType;
-import de.uni_passau.fim.prog2.kalah.view.PitLabel;
+import de.uni_passau.fim.prog2.kalah.view.BoardComponent;
 
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 
 /**
- * Listener reacting to a click on a pit.
+ * Listener reacting to a click on a pit of the board.
  */
 public class PitMouseListener implements MouseListener {
     private final Controller controller;
@@ -33,19 +34,24 @@ public class PitMouseListener implements MouseListener {
     @Override
     public void mouseClicked(MouseEvent e) {
         Model model = controller.getModel();
-        PitLabel pl = (PitLabel) e.getSource();
+        int pit = ((BoardComponent) e.getSource()).pitAt(e.getPoint());
+        if (pit == -1) {
+            return;
+        }
+
+        Board position = model.getBoard();
 
-        controller.pushHistory(model.getBoard());
+        controller.pushHistory(position);
 
         try {
-            model.setBoard(model.getBoard().move(pl.getPitNumber()));
+            model.setBoard(position.move(pit));
         } catch (IllegalMoveException | IllegalArgumentException ie) {
             controller.showNotification(NotificationType.ILLEGAL_MOVE);
             return;
         }
 
         controller.reload();
-        controller.instantiateMachineMove();
+        controller.instantiateMachineMove(position, pit);
     }
 
     /**
@@ -0,0 +1,85 @@
+package de.uni_passau.fim.prog2.kalah.controller;
+
+import de.uni_passau.fim.prog2.kalah.model.Board;
+import de.uni_passau.fim.prog2.kalah.model.Player;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Searches the machine's replies to all possible moves of the human while
+ * the human thinks. Once the human has moved, the reply to that move is
+ * taken over, and the searches of all other replies are cancelled.
+ * <p>
+ * The replies are searched one after another on a background thread, in
+ * the order of the human's pits. Each of them is the same search the
+ * machine runs after the move, so taking over a reply does not change the
+ * machine's play.
+ */
+class Ponderer {
+
+    private final ExecutorService executor
+            = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "Pondering");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private Board position;
+    private final Map<Integer, Future<Board>> replies = new HashMap<>();
+
+    /**
+     * Starts searching the replies to the human's moves in a position. The
+     * searches of a previous position are cancelled. Nothing is searched
+     * if the game is over or the machine is to move.
+     *
+     * @param position The position in which the human is to move.
+     */
+    synchronized void start(Board position) {
+        stop();
+        if (position.isGameOver() || position.next() != Player.HUMAN) {
+            return;
+        }
+        this.position = position;
+        for (int pit = 1; pit <= position.getPitsPerPlayer(); pit++) {
+            if (position.getSeeds(pit) == 0) {
+                continue;
+            }
+            Board next = position.move(pit);
+            if (!next.isGameOver() && next.next() == Player.COMPUTER) {
+                replies.put(pit, executor.submit(next::machineMove));
+            }
+        }
+    }
+
+    /**
+     * Takes over the search of the machine's reply to a move of the human
+     * and cancels all other searches.
+     *
+     * @param position The position in which the human moved.
+     * @param pit      The pit the human moved.
+     * @return The pending or finished search of the reply, or {@code null}
+     * if the reply was not searched in advance.
+     */
+    synchronized Future<Board> take(Board position, int pit) {
+        Future<Board> reply = position == this.position
+                ? replies.remove(pit)
+                : null;
+        stop();
+        return reply;
+    }
+
+    /**
+     * Cancels all searches.
+     */
+    synchronized void stop() {
+        for (Future<Board> reply : replies.values()) {
+            reply.cancel(true);
+        }
+        replies.clear();
+        position = null;
+    }
+}
@@ -0,0 +1,113 @@
+package de.uni_passau.fim.prog2.kalah.controller;
+
+import de.uni_passau.fim.prog2.kalah.model.Board;
+import de.uni_passau.fim.prog2.kalah.model.SearchStatistics;
+import de.uni_passau.fim.prog2.kalah.view.NotificationType;
+import de.uni_passau.fim.prog2.kalah.view.View;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The only way updates of the model reach the view. Updates may be
+ * requested from any thread without waiting for Swing, and are applied on
+ * the event dispatch thread. Requests arriving within one frame are merged,
+ * so the board is redrawn at most once per frame, always showing the board
+ * the model holds at that time.
+ */
+class ViewUpdater {
+
+    /**
+     * The duration of a frame in milliseconds.
+     */
+    private static final int FRAME_MILLIS = 16;
+
+    private final Controller controller;
+    private final View view;
+    private final Timer timer;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean boardChanged = new AtomicBoolean();
+    private final AtomicReference<SearchStatistics> statistics
+            = new AtomicReference<>();
+    private long lastFlush;
+
+    /**
+     * Creates an updater of a view.
+     *
+     * @param controller The controller whose model is shown.
+     * @param view       The view to update.
+     */
+    ViewUpdater(Controller controller, View view) {
+        this.controller = controller;
+        this.view = view;
+        this.timer = new Timer(FRAME_MILLIS, e -> flush());
+        this.timer.setRepeats(false);
+    }
+
+    /**
+     * Requests the view to show the current board of the model.
+     */
+    void reload() {
+        boardChanged.set(true);
+        schedule();
+    }
+
+    /**
+     * Requests the view to show the statistics of a machine move. Only the
+     * latest statistics requested within a frame are shown.
+     *
+     * @param statistics The statistics of the move.
+     */
+    void showStatistics(SearchStatistics statistics) {
+        this.statistics.set(statistics);
+        schedule();
+    }
+
+    /**
+     * Requests a notification of the user. Notifications are shown in the
+     * order they were requested, after all updates requested before them.
+     *
+     * @param type  The type of event that happened.
+     * @param board The board the notification refers to.
+     */
+    void showNotification(NotificationType type, Board board) {
+        SwingUtilities.invokeLater(() -> {
+            flush();
+            view.showNotification(type, board);
+        });
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                long wait = lastFlush + FRAME_MILLIS
+                        - System.currentTimeMillis();
+                if (wait <= 0) {
+                    flush();
+                } else {
+                    timer.setInitialDelay((int) wait);
+                    timer.restart();
+                }
+            });
+        }
+    }
+
+    /**
+     * Applies all pending updates. Runs on the event dispatch thread only.
+     */
+    private void flush() {
+        // requests from now on schedule another flush
+        scheduled.set(false);
+        timer.stop();
+        lastFlush = System.currentTimeMillis();
+        if (boardChanged.getAndSet(false)) {
+            view.updatePits(controller.getModel().getBoard());
+        }
+        SearchStatistics latest = statistics.getAndSet(null);
+        if (latest != null) {
+            view.showStatistics(latest);
+        }
+    }
+}
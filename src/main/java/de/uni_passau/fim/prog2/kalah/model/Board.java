@@ -70,6 +70,21 @@ public interface Board extends Cloneable {
     de.uni_passau.fim.prog2.kalah.model.Board machineMove()
             throws InterruptedException;
 
+    /**
+     * Scores every possible move of the player to move once, the same way
+     * the machine does when it chooses its move. This method does not change
+     * the state of this instance.
+     *
+     * @return The possible moves, best first. The machine's moves are ranked
+     * by descending, the human's moves by ascending score. Moves with equal
+     * scores keep the order of their pits.
+     * @throws IllegalMoveException If the game is already over.
+     * @throws InterruptedException {@link Thread#interrupt()} was called on the
+     *                              executing thread. Thus, the execution stops
+     *                              prematurely.
+     */
+    java.util.List<RankedMove> rankMoves() throws InterruptedException;
+
     /**
      * Sets the skill level of the machine.
      *
@@ -77,6 +92,61 @@ public interface Board extends Cloneable {
      */
     void setLevel(int level);
 
+    /**
+     * Sets the time the machine may think about a move. With a thinking time
+     * the skill level is ignored and the machine searches as deep as it can
+     * within that time.
+     *
+     * @param millis The thinking time in milliseconds, or {@code 0} to
+     *               always search up to the skill level.
+     */
+    void setThinkingTime(long millis);
+
+    /**
+     * Sets the table of exact endgame results the machine consults. Once a
+     * position is covered by the table, the machine plays perfectly without
+     * searching. The table is shared with all boards which are derived from
+     * this board afterwards.
+     *
+     * @param table The table, or {@code null} to always search.
+     */
+    void setEndgameTable(EndgameTable table);
+
+    /**
+     * Gets the table of exact endgame results the machine consults.
+     *
+     * @return The table, or {@code null} if none is used.
+     */
+    EndgameTable getEndgameTable();
+
+    /**
+     * Sets the file in which the machine remembers its moves across restarts
+     * of the application. The cache is shared with all boards which are
+     * derived from this board afterwards.
+     *
+     * @param cache The cache, or {@code null} to always search.
+     */
+    void setSearchCache(SearchCache cache);
+
+    /**
+     * Gets the file in which the machine remembers its moves across
+     * restarts of the application.
+     *
+     * @return The cache, or {@code null} if none is used.
+     */
+    SearchCache getSearchCache();
+
+    /**
+     * Gets how the machine found its moves the last time. These are the
+     * statistics of the last call of {@link #machineMove()} or
+     * {@link #rankMoves()} on this board, or of the machine move which led to
+     * this board.
+     *
+     * @return The statistics, {@link SearchStatistics#NONE} if the machine
+     * did not look for moves yet.
+     */
+    SearchStatistics getSearchStatistics();
+
     /**
      * Checks if the game is over. Either one player has won or there is a tie,
      * i.e., both players gained the same number of seeds.
@@ -0,0 +1,41 @@
+package de.uni_passau.fim.prog2.kalah.model;
+
+/**
+ * The implementations of the board, which play by the same rules and let
+ * the machine find the same moves.
+ */
+public enum BoardType {
+
+    /**
+     * The board of {@link Kalah}, keeping the seeds of every pit in an
+     * array.
+     */
+    ARRAY,
+
+    /**
+     * The board of {@link PackedKalah}, packing the seeds of all pits into
+     * a few longs, which makes copies of the board cheaper.
+     */
+    PACKED;
+
+    /**
+     * Creates a board of this implementation.
+     *
+     * @param pitsPerPlayer The number of pits each player should have on the
+     *                      board excluding the store.
+     * @param seedsPerPit   The number of seeds each pit excluding the stores
+     *                      should start with.
+     * @param openingPlayer The player who has the first move.
+     * @param level         The difficulty of the enemy ai.
+     * @return The new board.
+     */
+    public Board create(int pitsPerPlayer, int seedsPerPit,
+                        Player openingPlayer, int level) {
+        return switch (this) {
+            case ARRAY -> new Kalah(pitsPerPlayer, seedsPerPit, openingPlayer,
+                    level);
+            case PACKED -> new PackedKalah(pitsPerPlayer, seedsPerPit,
+                    openingPlayer, level);
+        };
+    }
+}
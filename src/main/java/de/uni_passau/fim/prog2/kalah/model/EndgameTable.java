@@ -0,0 +1,290 @@
+package de.uni_passau.fim.prog2.kalah.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exact results for all positions with only a few seeds left in the pits.
+ * <p>
+ * Seeds in the stores never leave them, so how a game ends from some
+ * position only depends on the seeds still in the pits and on the player to
+ * move. For every such position with up to {@link #getMaxSeeds()} seeds in
+ * the pits, the table holds the margin of seeds the player to move gains
+ * over the opponent from there on with perfect play of both. Whether the
+ * game is won, drawn or lost follows from this margin together with the
+ * seeds already in the stores.
+ * <p>
+ * The positions are numbered by the seeds in the pits of the player to move
+ * followed by the pits of the opponent, so the tables of both players are
+ * the same. A table file consists of a header and one signed byte per
+ * position, and is read through a memory-mapped buffer.
+ */
+public final class EndgameTable {
+
+    private static final int MAGIC = 0x4b454754;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+    private static final byte UNKNOWN = Byte.MIN_VALUE;
+
+    /**
+     * The most seeds a table may cover, so that every margin fits into a
+     * byte.
+     */
+    public static final int MAX_SEEDS = Byte.MAX_VALUE;
+
+    private final int pitsPerPlayer;
+    private final int maxSeeds;
+    private final long[][] binomial;
+    private final ByteBuffer margins;
+
+    private EndgameTable(int pitsPerPlayer, int maxSeeds, ByteBuffer margins) {
+        this.pitsPerPlayer = pitsPerPlayer;
+        this.maxSeeds = maxSeeds;
+        this.binomial = binomial(maxSeeds + 2 * pitsPerPlayer,
+                2 * pitsPerPlayer);
+        this.margins = margins;
+    }
+
+    /**
+     * Maps a table file into memory.
+     *
+     * @param file The file written by {@link #generate(int, int, Path)}.
+     * @return The table.
+     * @throws IOException If the file cannot be read or is no complete
+     *                     table.
+     */
+    public static EndgameTable load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException(file + " is no endgame table.");
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            int pitsPerPlayer = buffer.getInt(Integer.BYTES);
+            int maxSeeds = buffer.getInt(2 * Integer.BYTES);
+            if (buffer.getInt(0) != MAGIC || pitsPerPlayer < 1
+                    || maxSeeds < 0 || maxSeeds > MAX_SEEDS
+                    || size(pitsPerPlayer, maxSeeds)
+                    != channel.size() - HEADER_BYTES) {
+                throw new IOException(file + " is no endgame table.");
+            }
+            return new EndgameTable(pitsPerPlayer, maxSeeds,
+                    buffer.position(HEADER_BYTES).slice());
+        }
+    }
+
+    /**
+     * Solves all positions with up to the given number of seeds in the pits
+     * and writes the table to a file.
+     *
+     * @param pitsPerPlayer The number of pits per player of the table.
+     * @param maxSeeds      The most seeds in the pits of a position in the
+     *                      table, at most {@link #MAX_SEEDS}.
+     * @param file          The file to write, which is replaced if it exists.
+     * @return The number of positions in the table.
+     * @throws IOException If the file cannot be written.
+     */
+    public static long generate(int pitsPerPlayer, int maxSeeds, Path file)
+            throws IOException {
+        if (pitsPerPlayer < 1) {
+            throw new IllegalArgumentException(
+                    "At least one pit per player is needed.");
+        } else if (maxSeeds < 0 || maxSeeds > MAX_SEEDS) {
+            throw new IllegalArgumentException(
+                    "Tables cover between 0 and " + MAX_SEEDS + " seeds.");
+        }
+        long size = size(pitsPerPlayer, maxSeeds);
+        if (size > Integer.MAX_VALUE - HEADER_BYTES) {
+            throw new IllegalArgumentException("A table of " + size
+                    + " positions is too large.");
+        }
+        byte[] content = new byte[HEADER_BYTES + (int) size];
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        buffer.putInt(MAGIC).putInt(pitsPerPlayer).putInt(maxSeeds);
+        ByteBuffer solved = buffer.slice();
+        for (int i = 0; i < size; i++) {
+            solved.put(i, UNKNOWN);
+        }
+        EndgameTable table = new EndgameTable(pitsPerPlayer, maxSeeds,
+                solved);
+        int[] pits = new int[(pitsPerPlayer + 1) * 2];
+        for (int seeds = 0; seeds <= maxSeeds; seeds++) {
+            // every distribution of the seeds over the pits of both players
+            table.solveAll(pits, 0, seeds);
+        }
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer out = ByteBuffer.wrap(content);
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Gets the number of pits per player of the positions in this table.
+     *
+     * @return The number of pits per player.
+     */
+    public int getPitsPerPlayer() {
+        return pitsPerPlayer;
+    }
+
+    /**
+     * Gets the most seeds in the pits of a position in this table.
+     *
+     * @return The number of seeds.
+     */
+    public int getMaxSeeds() {
+        return maxSeeds;
+    }
+
+    /**
+     * Checks whether a board is in this table.
+     *
+     * @param board The board.
+     * @return {@code true} if and only if the board has the pits of this
+     * table and not more seeds in them than the table covers.
+     */
+    public boolean covers(Board board) {
+        if (board.getPitsPerPlayer() != pitsPerPlayer) {
+            return false;
+        }
+        int seeds = board.getSeedsOfPlayer(Player.HUMAN)
+                + board.getSeedsOfPlayer(Player.COMPUTER)
+                - board.getSeeds(pitsPerPlayer + 1)
+                - board.getSeeds(2 * pitsPerPlayer + 2);
+        return seeds <= maxSeeds;
+    }
+
+    /**
+     * Gets the seeds the player to move gains over the opponent from now on
+     * with perfect play, including the seeds left in the pits at the end.
+     *
+     * @param board A position which this table covers.
+     * @return The margin, negative if the opponent gains more.
+     */
+    int margin(SearchBoard board) {
+        if (board.isGameOver()) {
+            return pitSeeds(board, board.next())
+                    - pitSeeds(board, board.next().getOpposite());
+        }
+        return margins.get((int) index(board));
+    }
+
+    private void solveAll(int[] pits, int pit, int seeds) {
+        int last = pits.length - 1;
+        if (pit == last - 1) {
+            // the last pit of the machine takes all remaining seeds
+            pits[pit] = seeds;
+            solve(new SearchBoard(pitsPerPlayer, 0, pits, Player.HUMAN));
+            pits[pit] = 0;
+        } else if (pit == pitsPerPlayer) {
+            // skip the store of the human
+            solveAll(pits, pit + 1, seeds);
+        } else {
+            for (int k = 0; k <= seeds; k++) {
+                pits[pit] = k;
+                solveAll(pits, pit + 1, seeds - k);
+            }
+            pits[pit] = 0;
+        }
+    }
+
+    /**
+     * Finds the margin of a position by trying every move. Margins found
+     * before are looked up, so every position is only solved once. The
+     * recursion ends as every move either puts seeds into a store, or moves
+     * seeds of the player to move further towards her store.
+     */
+    private int solve(SearchBoard board) {
+        if (board.isGameOver()) {
+            return margin(board);
+        }
+        int index = (int) index(board);
+        byte known = margins.get(index);
+        if (known != UNKNOWN) {
+            return known;
+        }
+        Player mover = board.next();
+        int store = mover == Player.HUMAN ? pitsPerPlayer + 1
+                : 2 * pitsPerPlayer + 2;
+        int first = mover == Player.HUMAN ? 1 : pitsPerPlayer + 2;
+        int best = Integer.MIN_VALUE;
+        for (int pit = first; pit < first + pitsPerPlayer; pit++) {
+            if (board.getSeeds(pit) != 0) {
+                int before = board.getSeeds(store);
+                long undo = board.make(pit);
+                int gain = board.getSeeds(store) - before;
+                int margin = board.next() == mover
+                        ? gain + solve(board)
+                        : gain - solve(board);
+                board.unmake(undo);
+                best = Integer.max(best, margin);
+            }
+        }
+        margins.put(index, (byte) best);
+        return best;
+    }
+
+    /**
+     * Numbers the positions with {@code n} seeds in the pits after all
+     * positions with fewer seeds, and those with the same number of seeds by
+     * the combinatorial number system of the seeds per pit.
+     */
+    private long index(SearchBoard board) {
+        int parts = 2 * pitsPerPlayer;
+        int own = board.next() == Player.HUMAN ? 1 : pitsPerPlayer + 2;
+        int other = board.next() == Player.HUMAN ? pitsPerPlayer + 2 : 1;
+        int remaining = 0;
+        for (int k = 0; k < pitsPerPlayer; k++) {
+            remaining += board.getSeeds(own + k) + board.getSeeds(other + k);
+        }
+        // all positions with fewer seeds in the pits come first
+        long index = remaining == 0 ? 0
+                : binomial[remaining - 1 + parts][parts];
+        for (int k = 0; k < parts - 1; k++) {
+            int seeds = k < pitsPerPlayer ? board.getSeeds(own + k)
+                    : board.getSeeds(other + k - pitsPerPlayer);
+            int later = parts - 1 - k;
+            // positions with fewer seeds in this pit and the same before
+            index += binomial[remaining + later][later]
+                    - binomial[remaining - seeds + later][later];
+            remaining -= seeds;
+        }
+        return index;
+    }
+
+    private int pitSeeds(SearchBoard board, Player player) {
+        int first = player == Player.HUMAN ? 1 : pitsPerPlayer + 2;
+        int sum = 0;
+        for (int pit = first; pit < first + pitsPerPlayer; pit++) {
+            sum += board.getSeeds(pit);
+        }
+        return sum;
+    }
+
+    private static long size(int pitsPerPlayer, int maxSeeds) {
+        int parts = 2 * pitsPerPlayer;
+        return binomial(maxSeeds + parts, parts)[maxSeeds + parts][parts];
+    }
+
+    private static long[][] binomial(int n, int k) {
+        long[][] table = new long[n + 1][k + 1];
+        for (int i = 0; i <= n; i++) {
+            table[i][0] = 1;
+            for (int j = 1; j <= Integer.min(i, k); j++) {
+                table[i][j] = table[i - 1][j - 1]
+                        + (j <= i - 1 ? table[i - 1][j] : 0);
+            }
+        }
+        return table;
+    }
+}
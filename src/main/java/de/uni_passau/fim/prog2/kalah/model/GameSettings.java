@@ -3,10 +3,13 @@ package de.uni_passau.fim.prog2.kalah.model;
 /**
  * Contains all relevant information for the settings of a game of kalah.
  * @param level indicates the difficulty setting
+ * @param thinkingTime indicates how many milliseconds the machine may think
+ *                     about a move, or 0 if it searches up to the level
  * @param seedsPerPit indicates how many seeds a pit has initially when
  *                    starting a game
  * @param pitsPerPlayer indicates how many pits one player has during the
  *                      game not including the store
  */
-public record GameSettings(int level, int seedsPerPit, int pitsPerPlayer) {
+public record GameSettings(int level, long thinkingTime, int seedsPerPit,
+                           int pitsPerPlayer) {
 }
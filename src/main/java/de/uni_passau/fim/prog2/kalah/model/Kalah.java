@@ -2,15 +2,18 @@ package de.uni_passau.fim.prog2.kalah.model;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Standard implementation for the board interface. Allows for playing a game
  * of kalah against an enemy ai of varying difficulty.
  */
-public class Kalah implements Board, Comparable<Kalah> {
+public class Kalah implements Board {
     private int pitsPerPlayer;
     private final int pitsPerPlayerIncludingStore;
     private int seedsPerPit;
@@ -19,6 +22,7 @@ public class Kalah implements Board, Comparable<Kalah> {
     private Integer sourcePitOfLastMove;
     private Integer targetPitOfLastMove;
     private int level;
+    private long thinkingTime;
     private int[] pits;
     private final int humanFirstPit;
     private final int humanLastPit;
@@ -26,6 +30,18 @@ public class Kalah implements Board, Comparable<Kalah> {
     private final int computerFirstPit;
     private final int computerLastPit;
     private final int computerStore;
+    private int humanSeeds;
+    private int computerSeeds;
+    private int humanNonEmpty;
+    private int computerNonEmpty;
+    private TranspositionTable transpositionTable;
+    private ForkJoinPool searchPool;
+    private int searchThreads;
+    private boolean moveOrdering;
+    private EndgameTable endgameTable;
+    private boolean openingBook;
+    private SearchCache searchCache;
+    private SearchStatistics statistics;
 
     /**
      * Default constructor for the Kalah class.
@@ -60,6 +76,39 @@ public class Kalah implements Board, Comparable<Kalah> {
         for (int i = computerFirstPit; i <= computerLastPit; i++) {
             this.pits[i - 1] = seedsPerPit;
         }
+        countSeeds();
+        this.transpositionTable
+                = new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB);
+        this.searchPool = ForkJoinPool.commonPool();
+        this.searchThreads = 1;
+        this.moveOrdering = true;
+        this.openingBook = true;
+        this.statistics = SearchStatistics.NONE;
+    }
+
+    /**
+     * Creates a copy of this board with another position. The copy shares the
+     * transposition table and the search settings of this board.
+     *
+     * @param pits         The content of all pits and stores, where index
+     *                     {@code i} holds the seeds of pit {@code i + 1}.
+     * @param nextPlayer   The player who moves next.
+     * @param level        The skill level of the machine.
+     * @param thinkingTime The thinking time of the machine in milliseconds.
+     * @return A board without last move.
+     */
+    Kalah withPosition(int[] pits, Player nextPlayer, int level,
+                       long thinkingTime) {
+        Kalah board = (Kalah) clone();
+        System.arraycopy(pits, 0, board.pits, 0, board.pits.length);
+        board.countSeeds();
+        board.nextPlayer = nextPlayer;
+        board.level = level;
+        board.thinkingTime = thinkingTime;
+        board.sourcePitOfLastMove = null;
+        board.targetPitOfLastMove = null;
+        board.statistics = SearchStatistics.NONE;
+        return board;
     }
 
     /**
@@ -127,17 +176,56 @@ public class Kalah implements Board, Comparable<Kalah> {
      */
     @Override
     public Board machineMove() throws InterruptedException {
-        List<Kalah> possibleMoves = new ArrayList<>(pitsPerPlayer);
-        for (int j = computerFirstPit; j <= computerLastPit; j++) {
-            if (getSeeds(j) != 0) {
-                Kalah move = (Kalah) simulateMove(j).board();
-                possibleMoves.add(move);
+        long start = System.nanoTime();
+        if (openingBook && thinkingTime == 0
+                && nextPlayer == Player.COMPUTER) {
+            int pit = OpeningBook.standard().move(pitsPerPlayer, seedsPerPit,
+                    pits, level);
+            if (pit != -1) {
+                statistics = lookedUp(SearchStatistics.Source.OPENING_BOOK,
+                        start);
+                return play(pit);
             }
         }
-        try {
-            return possibleMoves.stream().max(Kalah::compareTo).get();
-        } catch (IllegalThreadStateException e) {
-            throw new InterruptedException();
+        // moves searched with thinking time depend on the speed of the search
+        boolean cached = searchCache != null && thinkingTime == 0
+                && !isGameOver()
+                && (endgameTable == null || !endgameTable.covers(this));
+        long key = cached ? cacheKey() : 0;
+        if (cached) {
+            int pit = searchCache.bestPit(key, level);
+            if (isPlayersPit(Player.COMPUTER, pit) && getSeeds(pit) != 0) {
+                statistics = lookedUp(SearchStatistics.Source.SEARCH_CACHE,
+                        start);
+                return play(pit);
+            }
+        }
+        RankedMove best = rankMoves(computerFirstPit, false).get(0);
+        if (cached) {
+            searchCache.store(key, level, best.pit(), best.score());
+        }
+        return play(best.pit());
+    }
+
+    /**
+     * Scores every possible move of the player to move once, the same way
+     * the machine does when it chooses its move. This method does not change
+     * the state of this instance.
+     *
+     * @return The possible moves, best first. The machine's moves are ranked
+     * by descending, the human's moves by ascending score. Moves with equal
+     * scores keep the order of their pits.
+     * @throws IllegalMoveException If the game is already over.
+     * @throws InterruptedException {@link Thread#interrupt()} was called on the
+     *                              executing thread. Thus, the execution stops
+     *                              prematurely.
+     */
+    @Override
+    public List<RankedMove> rankMoves() throws InterruptedException {
+        if (nextPlayer == Player.HUMAN) {
+            return rankMoves(humanFirstPit, true);
+        } else {
+            return rankMoves(computerFirstPit, false);
         }
     }
 
@@ -151,6 +239,185 @@ public class Kalah implements Board, Comparable<Kalah> {
         this.level = level;
     }
 
+    /**
+     * Sets the time the machine may think about a move. With a thinking time
+     * the level is ignored. Instead, the machine searches one level deeper
+     * after the other until the time is up, and plays the best move of the
+     * deepest search it completed.
+     *
+     * @param millis The thinking time in milliseconds, or {@code 0} to
+     *               always search up to the level.
+     */
+    @Override
+    public void setThinkingTime(long millis) {
+        this.thinkingTime = millis;
+    }
+
+    /**
+     * Sets the size of the table in which the machine remembers the scores of
+     * already searched positions. The table is shared with all boards which
+     * are derived from this board afterwards.
+     *
+     * @param megabytes The maximum size of the table in megabytes, must be at
+     *                  least 1.
+     */
+    public void setTranspositionTableSize(int megabytes) {
+        this.transpositionTable = new TranspositionTable(megabytes);
+    }
+
+    /**
+     * Forgets the scores remembered in the transposition table of this
+     * board, without allocating a new table. The table must not be in use
+     * by a search.
+     */
+    void clearTranspositionTable() {
+        transpositionTable.clear();
+    }
+
+    /**
+     * Lets this board and all boards derived from it afterwards remember
+     * scores in the same table as another board, which may be a game with
+     * other rules. Many games can thus share a bounded amount of memory and
+     * search at the same time.
+     *
+     * @param board The board whose table to use.
+     */
+    public void shareTranspositionTable(Kalah board) {
+        this.transpositionTable = board.transpositionTable;
+    }
+
+    /**
+     * Sets the pool on which the machine scores its possible moves in
+     * parallel. The common pool is used unless configured otherwise. The
+     * chosen move does not depend on the pool.
+     *
+     * @param pool The pool to search on, or {@code null} to score the moves
+     *             one after another on the calling thread.
+     */
+    public void setSearchPool(ForkJoinPool pool) {
+        this.searchPool = pool;
+    }
+
+    /**
+     * Sets the number of threads which search every possible move together,
+     * sharing their results through the transposition table (Lazy SMP). The
+     * calling thread scores the moves while the other threads run on the
+     * search pool and visit the moves in different orders. With only one
+     * thread, the moves are scored in parallel instead. The chosen move does
+     * not depend on the number of threads.
+     *
+     * @param threads The number of threads including the calling thread, at
+     *                least 1.
+     */
+    public void setSearchThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException(
+                    "At least one thread must search.");
+        }
+        this.searchThreads = threads;
+    }
+
+    /**
+     * Sets the table of exact endgame results the machine consults. Once a
+     * position is covered by the table, the machine plays perfectly without
+     * searching, and the scores of {@link #rankMoves()} are the final
+     * difference of the machine's and the human's seeds. The table is shared
+     * with all boards which are derived from this board afterwards.
+     *
+     * @param table The table, or {@code null} to always search.
+     */
+    @Override
+    public void setEndgameTable(EndgameTable table) {
+        this.endgameTable = table;
+    }
+
+    /**
+     * Gets the table of exact endgame results the machine consults.
+     *
+     * @return The table, or {@code null} if none is used.
+     */
+    @Override
+    public EndgameTable getEndgameTable() {
+        return endgameTable;
+    }
+
+    /**
+     * Enables or disables looking up the machine's moves at the start of the
+     * classical game in the opening book shipped with the application, which
+     * is enabled unless configured otherwise. The book is only used without
+     * thinking time, and its moves are the moves a search at the same level
+     * finds.
+     *
+     * @param enabled Whether to look up moves before searching.
+     */
+    public void setOpeningBook(boolean enabled) {
+        this.openingBook = enabled;
+    }
+
+    /**
+     * Sets the file in which the machine remembers its moves across restarts
+     * of the application. Before searching at a level, the machine looks up
+     * whether it already searched the position at that level, and afterwards
+     * it stores the move it found. Moves searched with a thinking time are
+     * not remembered. The cache is shared with all boards which are derived
+     * from this board afterwards.
+     *
+     * @param cache The cache, or {@code null} to always search.
+     */
+    @Override
+    public void setSearchCache(SearchCache cache) {
+        this.searchCache = cache;
+    }
+
+    /**
+     * Gets the file in which the machine remembers its moves across
+     * restarts of the application.
+     *
+     * @return The cache, or {@code null} if none is used.
+     */
+    @Override
+    public SearchCache getSearchCache() {
+        return searchCache;
+    }
+
+    /**
+     * Enables or disables ordering the moves by how promising they are
+     * during the search, which is enabled unless configured otherwise. The
+     * chosen move does not depend on the ordering, only the number of
+     * positions searched to find it.
+     *
+     * @param enabled Whether to search extra turns, captures and moves which
+     *                refuted other moves before first.
+     */
+    public void setMoveOrdering(boolean enabled) {
+        this.moveOrdering = enabled;
+    }
+
+    /**
+     * Gets the number of positions the last search of this board visited,
+     * including all threads and, with a thinking time, all levels.
+     *
+     * @return The number of visited positions, {@code 0} if this board did
+     * not search yet.
+     */
+    public long getSearchedNodes() {
+        return statistics.nodes();
+    }
+
+    /**
+     * Gets how the machine found its moves the last time. These are the
+     * statistics of the last call of {@link #machineMove()} or
+     * {@link #rankMoves()} on this board, or of the machine move which led to
+     * this board.
+     *
+     * @return The statistics, {@link SearchStatistics#NONE} if the machine
+     * did not look for moves yet.
+     */
+    @Override
+    public SearchStatistics getSearchStatistics() {
+        return statistics;
+    }
+
     /**
      * Checks if the game is over. Either one player has won or there is a tie,
      * i.e., both players gained the same number of seeds.
@@ -159,19 +426,7 @@ public class Kalah implements Board, Comparable<Kalah> {
      */
     @Override
     public boolean isGameOver() {
-        boolean humanPitsEmpty = true;
-        for (int i = humanFirstPit; i <= humanLastPit; i++) {
-            if (getSeeds(i) != 0) {
-                humanPitsEmpty = false;
-            }
-        }
-        boolean computerPitsEmpty = true;
-        for (int i = computerFirstPit; i <= computerLastPit; i++) {
-            if (getSeeds(i) != 0) {
-                computerPitsEmpty = false;
-            }
-        }
-        return humanPitsEmpty || computerPitsEmpty;
+        return humanNonEmpty == 0 || computerNonEmpty == 0;
     }
 
     /**
@@ -263,19 +518,12 @@ public class Kalah implements Board, Comparable<Kalah> {
      */
     @Override
     public int getSeedsOfPlayer(Player player) {
-        int sum = 0;
-        if (player == Player.HUMAN) {
-            for (int i = humanFirstPit; i <= humanStore; i++) {
-                sum += getSeeds(i);
-            }
-        } else if (player == Player.COMPUTER) {
-            for (int i = computerFirstPit; i <= computerStore; i++) {
-                sum += getSeeds(i);
-            }
-        } else {
-            throw new IllegalArgumentException("Cannot get seeds of NOBODY.");
-        }
-        return sum;
+        return switch (player) {
+            case HUMAN -> humanSeeds;
+            case COMPUTER -> computerSeeds;
+            case NOBODY -> throw new IllegalArgumentException(
+                    "Cannot get seeds of NOBODY.");
+        };
     }
 
     /**
@@ -332,9 +580,39 @@ public class Kalah implements Board, Comparable<Kalah> {
     private int overrideSeeds(int pit, int newValue) {
         int oldValue = getSeeds(pit);
         pits[pit - 1] = newValue;
+        count(pit, oldValue, newValue);
         return oldValue;
     }
 
+    private void countSeeds() {
+        humanSeeds = 0;
+        computerSeeds = 0;
+        humanNonEmpty = 0;
+        computerNonEmpty = 0;
+        for (int i = humanFirstPit; i <= computerStore; i++) {
+            count(i, 0, getSeeds(i));
+        }
+    }
+
+    /**
+     * Updates the seeds per player and the number of non-empty pits per
+     * player to a change of the content of a pit.
+     */
+    private void count(int pit, int oldValue, int newValue) {
+        int filled = (newValue != 0 ? 1 : 0) - (oldValue != 0 ? 1 : 0);
+        if (pit <= humanStore) {
+            humanSeeds += newValue - oldValue;
+            if (pit != humanStore) {
+                humanNonEmpty += filled;
+            }
+        } else {
+            computerSeeds += newValue - oldValue;
+            if (pit != computerStore) {
+                computerNonEmpty += filled;
+            }
+        }
+    }
+
     private int getOpposite(int pit) {
         if (pit == humanStore) {
             return computerStore;
@@ -345,7 +623,16 @@ public class Kalah implements Board, Comparable<Kalah> {
         }
     }
 
-    private MoveEvent simulateMove(int pit) throws InterruptedException {
+    /**
+     * Executes the move of the player to move from a pit on a copy of this
+     * board.
+     *
+     * @param pit The pit to sow from, which must belong to the player to move
+     *            and must not be empty.
+     * @return The copy with the move executed.
+     * @throws InterruptedException If the executing thread was interrupted.
+     */
+    MoveEvent simulateMove(int pit) throws InterruptedException {
         if (Thread.currentThread().isInterrupted()) {
             throw new InterruptedException();
         }
@@ -359,6 +646,7 @@ public class Kalah implements Board, Comparable<Kalah> {
             };
             int capturedSeeds = 0;
             Kalah board = (Kalah) clone();
+            board.statistics = SearchStatistics.NONE;
             int toSeed = board.overrideSeeds(pit, 0);
             int currentPit = pit;
             for (int i = 1; i <= toSeed; i++) {
@@ -399,183 +687,223 @@ public class Kalah implements Board, Comparable<Kalah> {
         return (pit % (pitsPerPlayerIncludingStore * 2)) + 1;
     }
 
-    private double scoreS() {
-        double scoreSH = getSeeds(humanStore);
-        double scoreSM = getSeeds(computerStore);
-        double scoreS = scoreSM - 1.5 * scoreSH;
-        return scoreS;
+    private double[] scoreMovesTogether(SearchBoard position, int[] moves,
+                                        SearchContext search)
+            throws InterruptedException {
+        List<ForkJoinTask<?>> helpers = new ArrayList<>(searchThreads - 1);
+        List<SearchContext> parts = new ArrayList<>(searchThreads - 1);
+        int count = moves.length;
+        for (int t = 1; t < searchThreads; t++) {
+            SearchContext part = search.fork(t);
+            SearchBoard board = position.copy();
+            int first = t % count;
+            parts.add(part);
+            helpers.add(searchPool.submit(() -> {
+                for (int k = 0; k < count; k++) {
+                    scoreMove(board, moves[(first + k) % count], part);
+                }
+                return null;
+            }));
+        }
+        double[] scores = new double[count];
+        try {
+            for (int k = 0; k < count; k++) {
+                scores[k] = scoreMove(position, moves[k], search);
+            }
+        } finally {
+            search.cancel();
+            for (int t = 0; t < helpers.size(); t++) {
+                helpers.get(t).cancel(false);
+                helpers.get(t).quietlyJoin();
+                search.join(parts.get(t));
+            }
+        }
+        return scores;
     }
 
-    private double scoreC() throws InterruptedException {
-        double scoreCH;
-        double scoreCM;
-        HashMap<Integer, Integer> humanCaught = new HashMap<>();
-        for (int i = humanFirstPit; i <= humanLastPit; i++) {
-            try {
-                Kalah clone = (Kalah) clone();
-                clone.nextPlayer = Player.HUMAN;
-                MoveEvent event = clone.simulateMove(i);
-                int seedsCaptured = event.seedsCaptured();
-                int targetPit = event.board().targetPitOfLastMove();
-                int seedsSavedBefore
-                        = humanCaught.getOrDefault(targetPit, 0);
-                humanCaught.put(targetPit, Integer.max(seedsCaptured,
-                        seedsSavedBefore));
-            } catch (IllegalMoveException e) {
+    /**
+     * Creates a search board with the position of this board.
+     *
+     * @return A mutable copy of the position.
+     */
+    SearchBoard toSearchBoard() {
+        return new SearchBoard(pitsPerPlayer, seedsPerPit, pits, nextPlayer);
+    }
 
+    private List<RankedMove> rankMoves(int firstPit, boolean ascending)
+            throws InterruptedException {
+        if (isGameOver()) {
+            throw new IllegalMoveException("Not a valid move.");
+        }
+        int[] moves = new int[pitsPerPlayer];
+        int count = 0;
+        for (int j = firstPit; j < firstPit + pitsPerPlayer; j++) {
+            if (getSeeds(j) != 0) {
+                moves[count++] = j;
             }
         }
-        HashMap<Integer, Integer> computerCaught = new HashMap<>();
-        for (int i = computerFirstPit; i <= computerLastPit; i++) {
-            try {
-                Kalah clone = (Kalah) clone();
-                clone.nextPlayer = Player.COMPUTER;
-                MoveEvent event = clone.simulateMove(i);
-                int seedsCaptured = event.seedsCaptured();
-                int targetPit = event.board().targetPitOfLastMove();
-                int seedsSavedBefore
-                        = computerCaught.getOrDefault(targetPit, 0);
-                computerCaught.put(targetPit, Integer.max(seedsCaptured,
-                        seedsSavedBefore));
-            } catch (IllegalMoveException e) {
+        moves = Arrays.copyOf(moves, count);
+        SearchBoard position = toSearchBoard();
+        double[] scores;
+        if (endgameTable != null && endgameTable.covers(this)) {
+            long start = System.nanoTime();
+            scores = endgameScores(position, moves);
+            statistics = lookedUp(SearchStatistics.Source.ENDGAME_TABLE,
+                    start);
+        } else {
+            transpositionTable.newSearch();
+            scores = thinkingTime > 0
+                    ? deepeningScores(position, moves)
+                    : levelScores(position, moves);
+        }
+        List<RankedMove> ranking = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            ranking.add(new RankedMove(moves[k], scores[k]));
+        }
+        Comparator<RankedMove> byScore
+                = Comparator.comparingDouble(RankedMove::score);
+        // the sort is stable, so equal scores stay in the order of the pits
+        ranking.sort(ascending ? byScore : byScore.reversed());
+        return ranking;
+    }
 
-            }
+    private double[] levelScores(SearchBoard position, int[] moves)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        SearchContext search = configure(
+                new SearchContext(level, transpositionTable));
+        double[] scores = scoreMoves(position, moves, search);
+        statistics = new SearchStatistics(SearchStatistics.Source.SEARCH,
+                search.nodes(), search.leaves(), search.tableHits(), level,
+                System.nanoTime() - start);
+        return scores;
+    }
+
+    private double[] endgameScores(SearchBoard position, int[] moves) {
+        double[] scores = new double[moves.length];
+        for (int k = 0; k < moves.length; k++) {
+            long undo = position.make(moves[k]);
+            int margin = endgameTable.margin(position);
+            scores[k] = position.getSeeds(computerStore)
+                    - position.getSeeds(humanStore)
+                    + (position.next() == Player.COMPUTER ? margin : -margin);
+            position.unmake(undo);
         }
-        scoreCH = humanCaught.values().stream().reduce(0, Integer::sum);
-        scoreCM =
-                computerCaught.values().stream().reduce(0, Integer::sum);
-        double scoreC = scoreCM - 1.5 * scoreCH;
-        return scoreC;
+        return scores;
     }
 
-    private double scoreP() {
-        double scorePM = 0;
-        double scorePH = 0;
-        for (int i = humanFirstPit; i <= humanLastPit; i++) {
-            if (getSeeds(i) == 0
-                    && getSeeds(getOpposite(i)) >= seedsPerPit * 2) {
-                scorePH++;
+    private double[] deepeningScores(SearchBoard position, int[] moves)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + thinkingTime * 1_000_000;
+        double[] scores = null;
+        long nodes = 0;
+        long leaves = 0;
+        long tableHits = 0;
+        int completed = 0;
+        for (int depth = 1; ; depth++) {
+            // the shallowest search always completes to have scores at all
+            SearchContext search = configure(depth == 1
+                    ? new SearchContext(depth, transpositionTable)
+                    : new SearchContext(depth, deadline, transpositionTable));
+            try {
+                scores = scoreMoves(position, moves, search);
+                completed = depth;
+            } catch (SearchContext.TimeoutException e) {
+                return scores;
+            } finally {
+                nodes += search.nodes();
+                leaves += search.leaves();
+                tableHits += search.tableHits();
+                statistics = new SearchStatistics(
+                        SearchStatistics.Source.SEARCH, nodes, leaves,
+                        tableHits, completed, System.nanoTime() - start);
             }
-        }
-        for (int i = computerFirstPit; i <= computerLastPit; i++) {
-            if (getSeeds(i) == 0
-                    && getSeeds(getOpposite(i)) >= seedsPerPit * 2) {
-                scorePM++;
+            if (!search.isHorizonReached()) {
+                return scores;
             }
         }
-        double scoreP = scorePM - 1.5 * scorePH;
-        return scoreP;
     }
 
-    private double scoreV(int i) {
-        if (isGameOver()) {
-            double scoreV = switch (getWinner()) {
-                case HUMAN -> (500.0 / i) * -1.5;
-                case COMPUTER -> 500.0 / i;
-                case NOBODY -> 0.0;
-            };
-            return scoreV;
-        } else {
-            return 0.0;
-        }
+    private Board play(int pit) throws InterruptedException {
+        Kalah board = (Kalah) simulateMove(pit).board();
+        board.statistics = statistics;
+        return board;
     }
 
-    private double getScore(int i) throws InterruptedException {
-        if (i == level) {
-            double score = 3 * scoreS() + scoreC() + scoreP() + scoreV(i);
-            return score;
-        } else {
-            double childOffset = switch (nextPlayer) {
-                case HUMAN -> {
-                    List<Double> possibleMoves
-                            = new ArrayList<>(pitsPerPlayer);
-                    for (int j = humanFirstPit; j <= humanLastPit; j++) {
-                        try {
-                            Kalah move = (Kalah) simulateMove(j).board();
-                            double value = move.getScore(i + 1);
-                            possibleMoves.add(value);
-                        } catch (IllegalMoveException e) {
-
-                        }
-                    }
-                    if (possibleMoves.isEmpty()) {
-                        yield 0.0;
-                    } else {
-                        yield possibleMoves.stream()
-                                .reduce(Double.POSITIVE_INFINITY, Double::min);
-                    }
-                }
-                case COMPUTER -> {
-                    List<Double> possibleMoves
-                            = new ArrayList<>(pitsPerPlayer);
-                    for (int j = computerFirstPit; j <= computerLastPit; j++) {
-                        try {
-                            Kalah move = (Kalah) simulateMove(j).board();
-                            double value = move.getScore(i + 1);
-                            possibleMoves.add(value);
-                        } catch (IllegalMoveException e) {
-
-                        }
-                    }
-                    if (possibleMoves.isEmpty()) {
-                        yield 0.0;
-                    } else {
-                        yield possibleMoves.stream()
-                                .reduce(Double.NEGATIVE_INFINITY, Double::max);
-                    }
+    private SearchStatistics lookedUp(SearchStatistics.Source source,
+                                      long start) {
+        return new SearchStatistics(source, 0, 0, 0, 0,
+                System.nanoTime() - start);
+    }
+
+    private long cacheKey() {
+        return Zobrist.hash(pits) ^ Zobrist.player(nextPlayer)
+                ^ Zobrist.game(pitsPerPlayer, seedsPerPit);
+    }
+
+    private SearchContext configure(SearchContext search) {
+        search.setMoveOrdering(moveOrdering);
+        return search;
+    }
+
+    private double[] scoreMoves(SearchBoard position, int[] moves,
+                                SearchContext search)
+            throws InterruptedException {
+        double[] scores = new double[moves.length];
+        if (searchPool != null && searchThreads > 1) {
+            return scoreMovesTogether(position, moves, search);
+        } else if (searchPool == null || scores.length < 2) {
+            for (int k = 0; k < scores.length; k++) {
+                scores[k] = scoreMove(position, moves[k], search);
+            }
+            return scores;
+        }
+        List<ForkJoinTask<Double>> tasks = new ArrayList<>(scores.length);
+        List<SearchContext> parts = new ArrayList<>(scores.length);
+        for (int move : moves) {
+            SearchContext part = search.fork();
+            SearchBoard board = position.copy();
+            parts.add(part);
+            tasks.add(searchPool.submit(() -> scoreMove(board, move, part)));
+        }
+        try {
+            for (int k = 0; k < scores.length; k++) {
+                scores[k] = tasks.get(k).get();
+                search.join(parts.get(k));
+            }
+        } catch (InterruptedException e) {
+            search.cancel();
+            throw e;
+        } catch (ExecutionException e) {
+            search.cancel();
+            // the pool wraps checked exceptions of the tasks
+            Throwable cause = e.getCause();
+            while (cause != null) {
+                if (cause instanceof InterruptedException) {
+                    throw new InterruptedException();
+                } else if (cause instanceof SearchContext.TimeoutException
+                        || cause instanceof IllegalMoveException) {
+                    throw (RuntimeException) cause;
                 }
-                case NOBODY -> 0.0;
-            };
-            double score = 3 * scoreS() + scoreC() + scoreP() + scoreV(i);
-            return childOffset + score;
+                cause = cause.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
         }
+        return scores;
     }
 
     /**
-     * Compares this object with the specified object for order.  Returns a
-     * negative integer, zero, or a positive integer as this object is less
-     * than, equal to, or greater than the specified object.
-     *
-     * <p>The implementor must ensure
-     * {@code sgn(x.compareTo(y)) == -sgn(y.compareTo(x))}
-     * for all {@code x} and {@code y}.  (This
-     * implies that {@code x.compareTo(y)} must throw an exception iff
-     * {@code y.compareTo(x)} throws an exception.)
-     *
-     * <p>The implementor must also ensure that the relation is transitive:
-     * {@code (x.compareTo(y) > 0 && y.compareTo(z) > 0)} implies
-     * {@code x.compareTo(z) > 0}.
-     *
-     * <p>Finally, the implementor must ensure that {@code x.compareTo(y)==0}
-     * implies that {@code sgn(x.compareTo(z)) == sgn(y.compareTo(z))}, for
-     * all {@code z}.
-     *
-     * <p>It is strongly recommended, but <i>not</i> strictly required that
-     * {@code (x.compareTo(y)==0) == (x.equals(y))}.  Generally speaking, any
-     * class that implements the {@code Comparable} interface and violates
-     * this condition should clearly indicate this fact.  The recommended
-     * language is "Note: this class has a natural ordering that is
-     * inconsistent with equals."
-     *
-     * <p>In the foregoing description, the notation
-     * {@code sgn(}<i>expression</i>{@code )} designates the mathematical
-     * <i>signum</i> function, which is defined to return one of {@code -1},
-     * {@code 0}, or {@code 1} according to whether the value of
-     * <i>expression</i> is negative, zero, or positive, respectively.
-     *
-     * @param o the object to be compared.
-     * @return a negative integer, zero, or a positive integer as this object
-     * is less than, equal to, or greater than the specified object.
-     * @throws NullPointerException if the specified object is null
-     * @throws ClassCastException   if the specified object's type prevents it
-     *                              from being compared to this object.
+     * Scores the position after a move of the machine. The move is made on
+     * the given board and taken back afterwards.
      */
-    @Override
-    public int compareTo(Kalah o) {
-        try {
-            return Double.compare(this.getScore(1), o.getScore(1));
-        } catch (InterruptedException e) {
-            throw new IllegalThreadStateException();
-        }
+    private static double scoreMove(SearchBoard position, int pit,
+                                    SearchContext search)
+            throws InterruptedException {
+        long undo = position.make(pit);
+        double score = position.score(search, 1, Double.NEGATIVE_INFINITY,
+                Double.POSITIVE_INFINITY);
+        position.unmake(undo);
+        return score;
     }
 }
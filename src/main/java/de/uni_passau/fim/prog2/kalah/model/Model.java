@@ -4,23 +4,59 @@ package de.uni_passau.fim.prog2.kalah.model;
  * The model of the application containing an instance of the game board.
  */
 public class Model {
-    private Board board;
+    private volatile Board board;
+    private final BoardType boardType;
+    private final SearchMonitor searchMonitor = new SearchMonitor();
 
     /**
      * Constructs a new model and creates a default board instance.
      */
     public Model() {
-        this.board = new Kalah(6, 3, Player.HUMAN, 3);
+        this(BoardType.ARRAY);
     }
 
     /**
-     * Construct a new model with a given board.
-     * @param board The initial board instance of the model.
+     * Constructs a new model whose boards are of the given implementation,
+     * and creates a default board instance.
+     *
+     * @param boardType The implementation of the boards.
+     */
+    public Model(BoardType boardType) {
+        this.boardType = boardType;
+        this.board = boardType.create(6, 3, Player.HUMAN, 3);
+    }
+
+    /**
+     * Construct a new model with a given board. Further boards of the model
+     * are of the same implementation.
+     * @param board The initial board instance of the model, or {@code null}
+     *              for none yet, in which case the boards keep their seeds
+     *              in an array.
      */
     public Model(Board board) {
+        this.boardType = board instanceof PackedKalah
+                ? BoardType.PACKED
+                : BoardType.ARRAY;
         this.board = board;
     }
 
+    /**
+     * Creates a board of the implementation the model uses.
+     *
+     * @param pitsPerPlayer The number of pits each player should have on the
+     *                      board excluding the store.
+     * @param seedsPerPit   The number of seeds each pit excluding the stores
+     *                      should start with.
+     * @param openingPlayer The player who has the first move.
+     * @param level         The difficulty of the enemy ai.
+     * @return The new board, which is not set as the current board yet.
+     */
+    public Board newBoard(int pitsPerPlayer, int seedsPerPit,
+                          Player openingPlayer, int level) {
+        return boardType.create(pitsPerPlayer, seedsPerPit, openingPlayer,
+                level);
+    }
+
     /**
      * Gets the current board instance.
      *
@@ -38,4 +74,13 @@ public class Model {
     public void setBoard(Board board) {
         this.board = board;
     }
+
+    /**
+     * Gets the statistics of the machine's moves in this session.
+     *
+     * @return The monitor of the machine's moves.
+     */
+    public SearchMonitor getSearchMonitor() {
+        return searchMonitor;
+    }
 }
@@ -0,0 +1,227 @@
+package de.uni_passau.fim.prog2.kalah.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The moves of the machine in the first positions of the classical game,
+ * searched in advance for every level up to {@link #getMaxLevel()}. A book
+ * move is the move the machine would choose by searching at that level, so
+ * looking it up changes nothing but the time it takes.
+ * <p>
+ * A book file consists of a header followed by one entry per position,
+ * ordered by the Zobrist hash of the position: the hash and the source pit
+ * of the machine's move per level, counted from the machine's first pit.
+ */
+public final class OpeningBook {
+
+    /**
+     * The resource of the book of the classical game, which is loaded on
+     * first use.
+     */
+    public static final String RESOURCE = "opening-"
+            + Board.DEFAULT_PITS_PER_PLAYER + "-"
+            + Board.DEFAULT_SEEDS_PER_PIT + ".book";
+
+    private static final int MAGIC = 0x4b424f4b;
+
+    private final int pitsPerPlayer;
+    private final int seedsPerPit;
+    private final int maxLevel;
+    private final long[] keys;
+    private final byte[] moves;
+
+    private OpeningBook(int pitsPerPlayer, int seedsPerPit, int maxLevel,
+                        long[] keys, byte[] moves) {
+        this.pitsPerPlayer = pitsPerPlayer;
+        this.seedsPerPit = seedsPerPit;
+        this.maxLevel = maxLevel;
+        this.keys = keys;
+        this.moves = moves;
+    }
+
+    /**
+     * Gets the book of the classical game shipped with the application. It
+     * is read when first needed. If it is missing or damaged, an empty book
+     * is used instead.
+     *
+     * @return The book, never {@code null}.
+     */
+    static OpeningBook standard() {
+        return Standard.BOOK;
+    }
+
+    /**
+     * Searches all positions of the classical game in which the machine is
+     * to move within the given number of moves from the start, no matter
+     * who opens the game, and writes the machine's move for every level to a
+     * file.
+     *
+     * @param plies    The number of moves of both players from the start.
+     * @param maxLevel The highest level to search.
+     * @param file     The file to write, which is replaced if it exists.
+     * @return The number of positions in the book.
+     * @throws IOException          If the file cannot be written.
+     * @throws InterruptedException If the search was interrupted.
+     */
+    public static int generate(int plies, int maxLevel, Path file)
+            throws IOException, InterruptedException {
+        if (maxLevel < 1 || maxLevel > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "Level must be between 1 and " + Byte.MAX_VALUE + ".");
+        }
+        int pitsPerPlayer = Board.DEFAULT_PITS_PER_PLAYER;
+        int seedsPerPit = Board.DEFAULT_SEEDS_PER_PIT;
+        Set<Long> seen = new HashSet<>();
+        List<int[]> positions = new ArrayList<>();
+        for (Player opening : new Player[] {Player.HUMAN, Player.COMPUTER}) {
+            Kalah start = new Kalah(pitsPerPlayer, seedsPerPit, opening, 1);
+            collect(start.toSearchBoard(), plies, seen, positions);
+        }
+        positions.sort((a, b) -> Long.compare(Zobrist.hash(a),
+                Zobrist.hash(b)));
+        Kalah engine = new Kalah(pitsPerPlayer, seedsPerPit,
+                Player.COMPUTER, 1);
+        engine.setOpeningBook(false);
+        int firstPit = pitsPerPlayer + 2;
+        try (OutputStream stream = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(
+                     new BufferedOutputStream(stream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(pitsPerPlayer);
+            out.writeInt(seedsPerPit);
+            out.writeInt(maxLevel);
+            out.writeInt(positions.size());
+            for (int[] pits : positions) {
+                out.writeLong(Zobrist.hash(pits));
+                for (int level = 1; level <= maxLevel; level++) {
+                    Kalah board = engine.withPosition(pits, Player.COMPUTER,
+                            level, 0);
+                    out.writeByte(board.rankMoves().get(0).pit() - firstPit);
+                }
+            }
+        }
+        return positions.size();
+    }
+
+    /**
+     * Gets the highest level this book knows the moves of.
+     *
+     * @return The highest level, {@code 0} for an empty book.
+     */
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    /**
+     * Looks up the move of the machine.
+     *
+     * @param pitsPerPlayer The number of pits per player of the game.
+     * @param seedsPerPit   The initial number of seeds per pit of the game.
+     * @param pits          The content of all pits and stores, where index
+     *                      {@code i} holds the seeds of pit {@code i + 1}.
+     * @param level         The level of the machine.
+     * @return The source pit of the machine's move, or {@code -1} if the
+     * position or the level is not in the book.
+     */
+    int move(int pitsPerPlayer, int seedsPerPit, int[] pits, int level) {
+        if (pitsPerPlayer != this.pitsPerPlayer
+                || seedsPerPit != this.seedsPerPit
+                || level < 1 || level > maxLevel) {
+            return -1;
+        }
+        int entry = Arrays.binarySearch(keys, Zobrist.hash(pits));
+        if (entry < 0) {
+            return -1;
+        }
+        return pitsPerPlayer + 2 + moves[entry * maxLevel + level - 1];
+    }
+
+    private static void collect(SearchBoard board, int plies, Set<Long> seen,
+                                List<int[]> positions) {
+        if (board.isGameOver()) {
+            return;
+        }
+        if (board.next() == Player.COMPUTER) {
+            int[] pits = board.toPits();
+            if (seen.add(Zobrist.hash(pits))) {
+                positions.add(pits);
+            }
+        }
+        if (plies == 0) {
+            return;
+        }
+        int pitsPerPlayer = Board.DEFAULT_PITS_PER_PLAYER;
+        int first = board.next() == Player.HUMAN ? 1 : pitsPerPlayer + 2;
+        for (int pit = first; pit < first + pitsPerPlayer; pit++) {
+            if (board.getSeeds(pit) != 0) {
+                long undo = board.make(pit);
+                collect(board, plies - 1, seen, positions);
+                board.unmake(undo);
+            }
+        }
+    }
+
+    private static OpeningBook read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(stream));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an opening book.");
+        }
+        int pitsPerPlayer = in.readInt();
+        int seedsPerPit = in.readInt();
+        int maxLevel = in.readInt();
+        int count = in.readInt();
+        if (maxLevel < 0 || count < 0) {
+            throw new IOException("Damaged opening book.");
+        }
+        long[] keys = new long[count];
+        byte[] moves = new byte[count * maxLevel];
+        for (int i = 0; i < count; i++) {
+            keys[i] = in.readLong();
+            in.readFully(moves, i * maxLevel, maxLevel);
+            if (i > 0 && keys[i] <= keys[i - 1]) {
+                throw new IOException("Damaged opening book.");
+            }
+        }
+        for (byte move : moves) {
+            if (move < 0 || move >= pitsPerPlayer) {
+                throw new IOException("Damaged opening book.");
+            }
+        }
+        return new OpeningBook(pitsPerPlayer, seedsPerPit, maxLevel, keys,
+                moves);
+    }
+
+    /**
+     * Holder of the book of the classical game, which is loaded by the class
+     * loader on first access.
+     */
+    private static final class Standard {
+        private static final OpeningBook BOOK = load();
+
+        private static OpeningBook load() {
+            try (InputStream stream
+                         = OpeningBook.class.getResourceAsStream(RESOURCE)) {
+                if (stream != null) {
+                    return read(stream);
+                }
+            } catch (IOException e) {
+                // play without book
+            }
+            return new OpeningBook(0, 0, 0, new long[0], new byte[0]);
+        }
+    }
+}
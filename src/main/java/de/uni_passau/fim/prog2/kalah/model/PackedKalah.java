@@ -0,0 +1,528 @@
+package de.uni_passau.fim.prog2.kalah.model;
+
+import java.util.List;
+
+/**
+ * Compact implementation of the board interface. The content of all pits and
+ * stores is packed into a few longs, each pit using only as many bits as are
+ * needed to count all seeds of the game. For the classical game with 6 pits
+ * and 3 seeds per pit each pit needs 6 bits, so the whole position fits
+ * into two longs. Copying a board therefore only copies these longs and a few
+ * small fields, while everything derived from the size of the board is shared
+ * by all boards of a game.
+ * <p>
+ * The machine searches its moves with the same engine as {@link Kalah}, so
+ * both implementations play exactly the same moves. The position is handed
+ * to the engine once per machine move, which searches on a representation
+ * of its own and never copies the board while searching. The
+ * transposition table of the engine is shared by all boards of a game. The
+ * implementation is chosen by {@link BoardType}.
+ */
+public class PackedKalah implements Board {
+    private final Layout layout;
+    private final Kalah engine;
+    private final Player openingPlayer;
+    private Player nextPlayer;
+    private int sourcePitOfLastMove;
+    private int targetPitOfLastMove;
+    private int level;
+    private long thinkingTime;
+    private EndgameTable endgameTable;
+    private SearchCache searchCache;
+    private SearchStatistics statistics;
+    private long[] words;
+
+    /**
+     * Default constructor for the PackedKalah class.
+     *
+     * @param pitsPerPlayer The number of pits each player should have on the
+     *                      board excluding the store.
+     * @param seedsPerPit   The number of seeds each pit excluding the stores
+     *                      should start with.
+     * @param openingPlayer The player who has the first move.
+     * @param level         The difficulty of the enemy ai.
+     */
+    public PackedKalah(int pitsPerPlayer, int seedsPerPit,
+                       Player openingPlayer, int level) {
+        this.layout = new Layout(pitsPerPlayer, seedsPerPit);
+        this.engine = new Kalah(pitsPerPlayer, seedsPerPit, openingPlayer,
+                level);
+        this.openingPlayer = openingPlayer;
+        this.nextPlayer = openingPlayer;
+        this.sourcePitOfLastMove = -1;
+        this.targetPitOfLastMove = -1;
+        this.level = level;
+        this.statistics = SearchStatistics.NONE;
+        this.words = new long[layout.words];
+        for (int i = 1; i <= pitsPerPlayer; i++) {
+            setSeeds(i, seedsPerPit);
+            setSeeds(layout.computerStore - i, seedsPerPit);
+        }
+    }
+
+    /**
+     * Gets the player who should open or already has opened the game by the
+     * initial move.
+     *
+     * @return The player who makes the initial move.
+     */
+    @Override
+    public Player getOpeningPlayer() {
+        return openingPlayer;
+    }
+
+    /**
+     * Gets the player who owns the next game turn.
+     *
+     * @return The player who is allowed to make the next turn.
+     */
+    @Override
+    public Player next() {
+        return nextPlayer;
+    }
+
+    /**
+     * Executes a human move. This method does not change the state of this
+     * instance, which is treated here as immutable. Instead, a new board/game
+     * is returned, which is a copy of {@code this} with the move executed.
+     *
+     * @param pit The number of the human pit whose contained seeds will be
+     *            sowed counter-clockwise.
+     * @return A new board with the move executed. If the move is not valid,
+     * i.e., the pit is empty, then {@code null} will be returned.
+     * @throws IllegalMoveException     If the game is already over, or it is
+     *                                  not the human's turn.
+     * @throws IllegalArgumentException If the provided parameter is invalid,
+     *                                  e.g., the defined pit is not on the
+     *                                  grid.
+     */
+    @Override
+    public Board move(int pit) {
+        if (nextPlayer != Player.HUMAN) {
+            throw new IllegalMoveException("Human may not make a move now.");
+        } else if (pit < 1 || pit > layout.humanStore - 1) {
+            throw new IllegalArgumentException("Pit does not belong to human");
+        } else {
+            return play(pit);
+        }
+    }
+
+    /**
+     * Executes a machine move. This method does not change the state of this
+     * instance, which is treated here as immutable. Instead, a new board/game
+     * is returned, which is a copy of {@code this} with the move executed.
+     *
+     * @return A new board with the move executed.
+     * @throws IllegalMoveException If the game is already over, or it is not
+     *                              the machine's turn.
+     * @throws InterruptedException {@link Thread#interrupt()} was called on the
+     *                              executing thread. Thus, the execution stops
+     *                              prematurely.
+     */
+    @Override
+    public Board machineMove() throws InterruptedException {
+        if (nextPlayer != Player.COMPUTER) {
+            throw new IllegalMoveException("Machine may not make a move now.");
+        }
+        Board searched = toKalah().machineMove();
+        PackedKalah board = play(searched.sourcePitOfLastMove());
+        board.statistics = searched.getSearchStatistics();
+        return board;
+    }
+
+    /**
+     * Scores every possible move of the player to move once, the same way
+     * the machine does when it chooses its move. This method does not change
+     * the state of this instance.
+     *
+     * @return The possible moves, best first. The machine's moves are ranked
+     * by descending, the human's moves by ascending score. Moves with equal
+     * scores keep the order of their pits.
+     * @throws IllegalMoveException If the game is already over.
+     * @throws InterruptedException {@link Thread#interrupt()} was called on the
+     *                              executing thread. Thus, the execution stops
+     *                              prematurely.
+     */
+    @Override
+    public List<RankedMove> rankMoves() throws InterruptedException {
+        Kalah board = toKalah();
+        List<RankedMove> moves = board.rankMoves();
+        statistics = board.getSearchStatistics();
+        return moves;
+    }
+
+    /**
+     * Sets the skill level of the machine.
+     *
+     * @param level The skill as a number, must be at least 1.
+     */
+    @Override
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    /**
+     * Sets the time the machine may think about a move. With a thinking time
+     * the skill level is ignored and the machine searches as deep as it can
+     * within that time.
+     *
+     * @param millis The thinking time in milliseconds, or {@code 0} to
+     *               always search up to the skill level.
+     */
+    @Override
+    public void setThinkingTime(long millis) {
+        this.thinkingTime = millis;
+    }
+
+    /**
+     * Sets the table of exact endgame results the machine consults. Once a
+     * position is covered by the table, the machine plays perfectly without
+     * searching. The table is shared with all boards which are derived from
+     * this board afterwards.
+     *
+     * @param table The table, or {@code null} to always search.
+     */
+    @Override
+    public void setEndgameTable(EndgameTable table) {
+        this.endgameTable = table;
+    }
+
+    /**
+     * Gets the table of exact endgame results the machine consults.
+     *
+     * @return The table, or {@code null} if none is used.
+     */
+    @Override
+    public EndgameTable getEndgameTable() {
+        return endgameTable;
+    }
+
+    /**
+     * Sets the file in which the machine remembers its moves across restarts
+     * of the application. The cache is shared with all boards which are
+     * derived from this board afterwards.
+     *
+     * @param cache The cache, or {@code null} to always search.
+     */
+    @Override
+    public void setSearchCache(SearchCache cache) {
+        this.searchCache = cache;
+    }
+
+    /**
+     * Gets the file in which the machine remembers its moves across
+     * restarts of the application.
+     *
+     * @return The cache, or {@code null} if none is used.
+     */
+    @Override
+    public SearchCache getSearchCache() {
+        return searchCache;
+    }
+
+    /**
+     * Gets how the machine found its moves the last time. These are the
+     * statistics of the last call of {@link #machineMove()} or
+     * {@link #rankMoves()} on this board, or of the machine move which led to
+     * this board.
+     *
+     * @return The statistics, {@link SearchStatistics#NONE} if the machine
+     * did not look for moves yet.
+     */
+    @Override
+    public SearchStatistics getSearchStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Checks if the game is over. Either one player has won or there is a tie,
+     * i.e., both players gained the same number of seeds.
+     *
+     * @return {@code true} if and only if the game is over.
+     */
+    @Override
+    public boolean isGameOver() {
+        boolean humanPitsEmpty = true;
+        boolean computerPitsEmpty = true;
+        for (int w = 0; w < words.length; w++) {
+            humanPitsEmpty &= (words[w] & layout.humanPits[w]) == 0;
+            computerPitsEmpty &= (words[w] & layout.computerPits[w]) == 0;
+        }
+        return humanPitsEmpty || computerPitsEmpty;
+    }
+
+    /**
+     * Checks if the game state is won. Should only be called if
+     * {@link #isGameOver()} returns {@code true}.
+     * <p>
+     * A game is won by a player if her own or the opponents pits are all empty,
+     * and the number of seeds in the own store plus the seeds in the own pits
+     * is more than the sum of seeds in the opponents pits and store.
+     *
+     * @return The winner or nobody in case of a tie.
+     */
+    @Override
+    public Player getWinner() {
+        if (isGameOver()) {
+            int humanSeeds = getSeedsOfPlayer(Player.HUMAN);
+            int computerSeeds = getSeedsOfPlayer(Player.COMPUTER);
+            if (humanSeeds > computerSeeds) {
+                return Player.HUMAN;
+            } else if (computerSeeds > humanSeeds) {
+                return Player.COMPUTER;
+            } else {
+                return Player.NOBODY;
+            }
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the number of seeds of the specified pit index {@code pit}.
+     *
+     * @param pit The number of the pit.
+     * @return The pit's content.
+     */
+    @Override
+    public int getSeeds(int pit) {
+        int slot = pit - 1;
+        return (int) (words[slot / layout.pitsPerWord]
+                >>> layout.shift(slot)) & layout.mask;
+    }
+
+    /**
+     * Gets the number of the source pit of the last executed move. A number of
+     * one of the stores is not possible.
+     *
+     * @return The ordering number of the last move's source pit.
+     */
+    @Override
+    public int sourcePitOfLastMove() {
+        return sourcePitOfLastMove;
+    }
+
+    /**
+     * Gets the number of the target pit of the last executed move. The number
+     * of the move opponent's stores is not possible.
+     *
+     * @return The ordering number of the last move's target pit.
+     */
+    @Override
+    public int targetPitOfLastMove() {
+        return targetPitOfLastMove;
+    }
+
+    /**
+     * Gets the number of pits per player in this game.
+     *
+     * @return The number of pits per player.
+     */
+    @Override
+    public int getPitsPerPlayer() {
+        return layout.humanStore - 1;
+    }
+
+    /**
+     * Gets the initial number of seeds in each pit of the players.
+     *
+     * @return The initial number of seeds per pit.
+     */
+    @Override
+    public int getSeedsPerPit() {
+        return layout.seedsPerPit;
+    }
+
+    /**
+     * Gets the current number of the seeds of the player {@code player}. This
+     * is the sum of the seeds in her pits and in her store.
+     *
+     * @param player The player for which to sum up her seeds.
+     * @return The sum of the seeds per player.
+     */
+    @Override
+    public int getSeedsOfPlayer(Player player) {
+        int first;
+        int store;
+        if (player == Player.HUMAN) {
+            first = 1;
+            store = layout.humanStore;
+        } else if (player == Player.COMPUTER) {
+            first = layout.humanStore + 1;
+            store = layout.computerStore;
+        } else {
+            throw new IllegalArgumentException("Cannot get seeds of NOBODY.");
+        }
+        int sum = 0;
+        for (int i = first; i <= store; i++) {
+            sum += getSeeds(i);
+        }
+        return sum;
+    }
+
+    /**
+     * Creates and returns a deep copy of this board.
+     *
+     * @return A clone.
+     */
+    @Override
+    public Board clone() {
+        PackedKalah clone;
+        try {
+            clone = (PackedKalah) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+        clone.words = this.words.clone();
+        return clone;
+    }
+
+    /**
+     * Calculates a string representation of the current board. Takes into
+     * account how many digits the biggest number has, allowing for dynamic
+     * formatting.
+     *
+     * @return The string representation of the board.
+     */
+    @Override
+    public String toString() {
+        int mostSeeds = 0;
+        for (int i = 1; i <= layout.computerStore; i++) {
+            mostSeeds = Integer.max(mostSeeds, getSeeds(i));
+        }
+        int padding = String.valueOf(mostSeeds).length();
+        StringBuilder sb = new StringBuilder();
+        for (int i = layout.computerStore; i > layout.humanStore; i--) {
+            sb.append(String.format("%" + padding + "s", getSeeds(i)))
+                    .append(" ");
+        }
+        sb.deleteCharAt(sb.length() - 1);
+        sb.append(System.lineSeparator())
+                .append(String.format("%" + padding + "s", "")).append(" ");
+        for (int i = 1; i <= layout.humanStore; i++) {
+            sb.append(String.format("%" + padding + "s", getSeeds(i)))
+                    .append(" ");
+        }
+        return sb.substring(0, sb.length() - 1);
+    }
+
+    private void setSeeds(int pit, int seeds) {
+        int slot = pit - 1;
+        int word = slot / layout.pitsPerWord;
+        int shift = layout.shift(slot);
+        words[word] = words[word] & ~((long) layout.mask << shift)
+                | (long) seeds << shift;
+    }
+
+    private boolean isPlayersPit(Player player, int pit) {
+        return switch (player) {
+            case HUMAN -> pit < layout.humanStore;
+            case COMPUTER -> pit > layout.humanStore
+                    && pit < layout.computerStore;
+            case NOBODY -> false;
+        };
+    }
+
+    private int getOpposite(int pit) {
+        if (pit == layout.humanStore) {
+            return layout.computerStore;
+        } else if (pit == layout.computerStore) {
+            return layout.humanStore;
+        } else {
+            return layout.computerStore - pit;
+        }
+    }
+
+    private Kalah toKalah() {
+        int[] pits = new int[layout.computerStore];
+        for (int i = 1; i <= pits.length; i++) {
+            pits[i - 1] = getSeeds(i);
+        }
+        Kalah board = engine.withPosition(pits, nextPlayer, level,
+                thinkingTime);
+        board.setEndgameTable(endgameTable);
+        board.setSearchCache(searchCache);
+        return board;
+    }
+
+    private PackedKalah play(int pit) {
+        if (getSeeds(pit) == 0 || isGameOver()) {
+            throw new IllegalMoveException("Not a valid move.");
+        }
+        int store = nextPlayer == Player.HUMAN
+                ? layout.humanStore
+                : layout.computerStore;
+        PackedKalah board = (PackedKalah) clone();
+        board.statistics = SearchStatistics.NONE;
+        int toSeed = getSeeds(pit);
+        board.setSeeds(pit, 0);
+        int currentPit = pit;
+        for (int i = 1; i <= toSeed; i++) {
+            currentPit = currentPit % layout.computerStore + 1;
+            if (currentPit == getOpposite(store)) {
+                currentPit = currentPit % layout.computerStore + 1;
+            }
+            if (i == toSeed) {
+                if (board.isPlayersPit(nextPlayer, currentPit)
+                        && board.getSeeds(currentPit) == 0
+                        && board.getSeeds(getOpposite(currentPit)) != 0) {
+                    int captured = board.getSeeds(getOpposite(currentPit));
+                    board.setSeeds(getOpposite(currentPit), 0);
+                    board.setSeeds(store,
+                            board.getSeeds(store) + captured + 1);
+                } else {
+                    board.setSeeds(currentPit,
+                            board.getSeeds(currentPit) + 1);
+                }
+                board.sourcePitOfLastMove = pit;
+                board.targetPitOfLastMove = currentPit;
+                if (currentPit != store) {
+                    board.nextPlayer = nextPlayer.getOpposite();
+                }
+            } else {
+                board.setSeeds(currentPit, board.getSeeds(currentPit) + 1);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Everything derived from the size of a board, shared by all boards of a
+     * game.
+     */
+    private static final class Layout {
+        private final int seedsPerPit;
+        private final int humanStore;
+        private final int computerStore;
+        private final int bitsPerPit;
+        private final int mask;
+        private final int pitsPerWord;
+        private final int words;
+        private final long[] humanPits;
+        private final long[] computerPits;
+
+        private Layout(int pitsPerPlayer, int seedsPerPit) {
+            this.seedsPerPit = seedsPerPit;
+            this.humanStore = pitsPerPlayer + 1;
+            this.computerStore = humanStore * 2;
+            int allSeeds = pitsPerPlayer * seedsPerPit * 2;
+            this.bitsPerPit = Integer.max(1,
+                    Integer.SIZE - Integer.numberOfLeadingZeros(allSeeds));
+            this.mask = (1 << bitsPerPit) - 1;
+            this.pitsPerWord = Long.SIZE / bitsPerPit;
+            this.words = (computerStore + pitsPerWord - 1) / pitsPerWord;
+            this.humanPits = new long[words];
+            this.computerPits = new long[words];
+            for (int pit = 1; pit < humanStore; pit++) {
+                int slot = pit - 1;
+                humanPits[slot / pitsPerWord] |= (long) mask << shift(slot);
+                slot = computerStore - pit - 1;
+                computerPits[slot / pitsPerWord] |= (long) mask << shift(slot);
+            }
+        }
+
+        private int shift(int slot) {
+            return (slot % pitsPerWord) * bitsPerPit;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package de.uni_passau.fim.prog2.kalah.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Counts the positions reached after a fixed number of moves, following
+ * every possible move of both players. A move is a single sowing, so an
+ * extra turn takes another move. Lines of play which end the game before
+ * are not counted.
+ * <p>
+ * The counts depend on nothing but the rules, which makes them a check that
+ * different ways of executing moves agree, and a measure of how fast they
+ * are.
+ */
+public final class Perft {
+
+    /**
+     * The number of remaining moves below which a subtree is counted by a
+     * single thread.
+     */
+    private static final int SEQUENTIAL_DEPTH = 4;
+
+    /**
+     * The ways of executing moves.
+     */
+    public enum Generator {
+
+        /**
+         * Executes every move on a new copy of the board, as
+         * {@link Board#move(int)} does.
+         */
+        BOARD,
+
+        /**
+         * Executes and takes back moves in place, as the machine's search
+         * does.
+         */
+        SEARCH
+    }
+
+    private Perft() throws InstantiationException {
+        throw new InstantiationException("Perft should not be constructed.");
+    }
+
+    /**
+     * Counts the positions after a number of moves from a board.
+     *
+     * @param board     The board to start from.
+     * @param depth     The number of moves, at least {@code 0}.
+     * @param generator The way moves are executed.
+     * @param pool      The pool counting subtrees in parallel, or
+     *                  {@code null} to count on the calling thread only.
+     * @return The number of positions.
+     * @throws InterruptedException If the counting was interrupted.
+     */
+    public static long count(Kalah board, int depth, Generator generator,
+                             ForkJoinPool pool) throws InterruptedException {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Depth must not be negative.");
+        }
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Task task = generator == Generator.BOARD
+                ? new Task(board, null, depth, cancelled)
+                : new Task(null, board.toSearchBoard(), depth, cancelled);
+        if (pool == null) {
+            return task.count();
+        }
+        ForkJoinTask<Long> result = pool.submit(task);
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            cancelled.set(true);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CancellationException) {
+                throw new InterruptedException();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static long count(Kalah board, int depth)
+            throws InterruptedException {
+        if (depth == 0) {
+            return 1;
+        } else if (board.isGameOver()) {
+            return 0;
+        }
+        long positions = 0;
+        for (int pit : moves(board.next(), board.getPitsPerPlayer())) {
+            if (board.getSeeds(pit) != 0) {
+                positions += count((Kalah) board.simulateMove(pit).board(),
+                        depth - 1);
+            }
+        }
+        return positions;
+    }
+
+    private static long count(SearchBoard board, int depth, int[][] moves) {
+        if (depth == 0) {
+            return 1;
+        } else if (board.isGameOver()) {
+            return 0;
+        } else if (depth == 1) {
+            // every move leads to exactly one position
+            int count = 0;
+            for (int pit : moves[board.next().ordinal()]) {
+                if (board.getSeeds(pit) != 0) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        long positions = 0;
+        for (int pit : moves[board.next().ordinal()]) {
+            if (board.getSeeds(pit) != 0) {
+                long undo = board.make(pit);
+                positions += count(board, depth - 1, moves);
+                board.unmake(undo);
+            }
+        }
+        return positions;
+    }
+
+    private static int[] moves(Player player, int pitsPerPlayer) {
+        int first = player == Player.HUMAN ? 1 : pitsPerPlayer + 2;
+        int[] moves = new int[pitsPerPlayer];
+        for (int k = 0; k < pitsPerPlayer; k++) {
+            moves[k] = first + k;
+        }
+        return moves;
+    }
+
+    /**
+     * Counts a subtree, splitting it into the subtrees of its moves while
+     * many moves remain. Exactly one of the boards is given, depending on
+     * the generator.
+     */
+    private static final class Task extends RecursiveTask<Long> {
+
+        private final Kalah board;
+        private final SearchBoard position;
+        private final int depth;
+        private final AtomicBoolean cancelled;
+
+        private Task(Kalah board, SearchBoard position, int depth,
+                     AtomicBoolean cancelled) {
+            this.board = board;
+            this.position = position;
+            this.depth = depth;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected Long compute() {
+            if (cancelled.get()) {
+                throw new CancellationException();
+            } else if (depth <= SEQUENTIAL_DEPTH || isGameOver()) {
+                try {
+                    return count();
+                } catch (InterruptedException e) {
+                    throw new CancellationException();
+                }
+            }
+            List<Task> children = new ArrayList<>();
+            for (int pit : moves(next(), pitsPerPlayer())) {
+                if (getSeeds(pit) != 0) {
+                    children.add(child(pit));
+                }
+            }
+            long positions = 0;
+            for (Task child : invokeAll(children)) {
+                positions += child.join();
+            }
+            return positions;
+        }
+
+        private long count() throws InterruptedException {
+            if (board != null) {
+                return Perft.count(board, depth);
+            }
+            int pitsPerPlayer = pitsPerPlayer();
+            int[][] moves = new int[Player.values().length][];
+            for (Player player : new Player[] {Player.HUMAN,
+                    Player.COMPUTER}) {
+                moves[player.ordinal()] = Perft.moves(player, pitsPerPlayer);
+            }
+            return Perft.count(position, depth, moves);
+        }
+
+        private Task child(int pit) {
+            if (board != null) {
+                try {
+                    return new Task((Kalah) board.simulateMove(pit).board(),
+                            null, depth - 1, cancelled);
+                } catch (InterruptedException e) {
+                    throw new CancellationException();
+                }
+            }
+            SearchBoard next = position.copy();
+            next.make(pit);
+            return new Task(null, next, depth - 1, cancelled);
+        }
+
+        private boolean isGameOver() {
+            return board != null ? board.isGameOver()
+                    : position.isGameOver();
+        }
+
+        private Player next() {
+            return board != null ? board.next() : position.next();
+        }
+
+        private int getSeeds(int pit) {
+            return board != null ? board.getSeeds(pit)
+                    : position.getSeeds(pit);
+        }
+
+        private int pitsPerPlayer() {
+            return board != null ? board.getPitsPerPlayer()
+                    : position.getPitsPerPlayer();
+        }
+    }
+}
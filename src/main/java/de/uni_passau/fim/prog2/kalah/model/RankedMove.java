@@ -0,0 +1,12 @@
+package de.uni_passau.fim.prog2.kalah.model;
+
+/**
+ * Record containing a possible move together with the score the machine
+ * assigns to it.
+ *
+ * @param pit   The number of the pit the move sows from.
+ * @param score The score of the resulting position from the machine's point
+ *              of view, higher is better for the machine.
+ */
+public record RankedMove(int pit, double score) {
+}
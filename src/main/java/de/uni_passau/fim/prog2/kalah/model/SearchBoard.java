@@ -0,0 +1,620 @@
+package de.uni_passau.fim.prog2.kalah.model;
+
+import java.util.Arrays;
+
+/**
+ * Mutable position on which the machine searches for its next move. Instead
+ * of copying the board for every node, a move is applied in place by
+ * {@link #make(int)} and taken back by {@link #unmake(long)} once its
+ * subtree has been scored. Everything needed to take a move back is packed
+ * into a single {@code long}, so a search allocates nothing per node.
+ * <p>
+ * The pits are numbered as in {@link Board}. A search board must only be
+ * used by one thread at a time, threads searching in parallel work on their
+ * own {@link #copy()}.
+ */
+final class SearchBoard {
+
+    /**
+     * Slack added to the alpha-beta window whenever it is shifted by the
+     * evaluation of a node. Scores never come close to the precision limit of
+     * a double, so this is far above any rounding error and far below any
+     * meaningful difference of two scores.
+     */
+    private static final double WINDOW_TOLERANCE = 1e-6;
+
+    private static final int PIT_BITS = 10;
+    private static final int SEED_BITS = 20;
+    private static final long PIT_MASK = (1L << PIT_BITS) - 1;
+    private static final long SEED_MASK = (1L << SEED_BITS) - 1;
+    private static final int TARGET_SHIFT = PIT_BITS;
+    private static final int SOWN_SHIFT = 2 * PIT_BITS;
+    private static final int CAPTURED_SHIFT = SOWN_SHIFT + SEED_BITS;
+    private static final long SWITCHED = 1L << (CAPTURED_SHIFT + SEED_BITS);
+
+    private static final long EXTRA_TURN = 3L << 60;
+    private static final long CAPTURE = 2L << 60;
+    private static final long KILLER = 1L << 60;
+
+    private final int pitsPerPlayer;
+    private final int seedsPerPit;
+    private final int humanStore;
+    private final int computerFirstPit;
+    private final int computerLastPit;
+    private final int computerStore;
+    private final int[] pits;
+    private final int[] caughtPerPit;
+    private int[][] moveLists = new int[0][];
+    private long[][] moveKeys = new long[0][];
+    private Player nextPlayer;
+    private long hash;
+    private int humanSeeds;
+    private int computerSeeds;
+    private int humanNonEmpty;
+    private int computerNonEmpty;
+
+    /**
+     * Creates a search board for a position.
+     *
+     * @param pitsPerPlayer The number of pits of each player without store.
+     * @param seedsPerPit   The initial number of seeds per pit.
+     * @param seeds         The content of all pits and stores, where index
+     *                      {@code i} holds the seeds of pit {@code i + 1}.
+     * @param nextPlayer    The player who moves next.
+     */
+    SearchBoard(int pitsPerPlayer, int seedsPerPit, int[] seeds,
+                Player nextPlayer) {
+        this.pitsPerPlayer = pitsPerPlayer;
+        this.seedsPerPit = seedsPerPit;
+        this.humanStore = pitsPerPlayer + 1;
+        this.computerFirstPit = humanStore + 1;
+        this.computerLastPit = humanStore + pitsPerPlayer;
+        this.computerStore = humanStore * 2;
+        this.pits = new int[computerStore + 1];
+        System.arraycopy(seeds, 0, pits, 1, computerStore);
+        this.caughtPerPit = new int[computerStore + 1];
+        this.nextPlayer = nextPlayer;
+        // the rules are part of the hash, so games may share one table
+        this.hash = Zobrist.hash(seeds)
+                ^ Zobrist.game(pitsPerPlayer, seedsPerPit);
+        for (int pit = 1; pit <= computerStore; pit++) {
+            count(pit, 0, pits[pit]);
+        }
+    }
+
+    private SearchBoard(SearchBoard original) {
+        this.pitsPerPlayer = original.pitsPerPlayer;
+        this.seedsPerPit = original.seedsPerPit;
+        this.humanStore = original.humanStore;
+        this.computerFirstPit = original.computerFirstPit;
+        this.computerLastPit = original.computerLastPit;
+        this.computerStore = original.computerStore;
+        this.pits = original.pits.clone();
+        this.caughtPerPit = new int[computerStore + 1];
+        this.nextPlayer = original.nextPlayer;
+        this.hash = original.hash;
+        this.humanSeeds = original.humanSeeds;
+        this.computerSeeds = original.computerSeeds;
+        this.humanNonEmpty = original.humanNonEmpty;
+        this.computerNonEmpty = original.computerNonEmpty;
+    }
+
+    /**
+     * Creates an independent copy of this position for another thread.
+     *
+     * @return A search board with the same position.
+     */
+    SearchBoard copy() {
+        return new SearchBoard(this);
+    }
+
+    /**
+     * Gets the number of pits of each player.
+     *
+     * @return The number of pits per player without store.
+     */
+    int getPitsPerPlayer() {
+        return pitsPerPlayer;
+    }
+
+    /**
+     * Gets the number of seeds in a pit.
+     *
+     * @param pit The number of the pit.
+     * @return The pit's content.
+     */
+    int getSeeds(int pit) {
+        return pits[pit];
+    }
+
+    /**
+     * Copies the content of all pits and stores.
+     *
+     * @return An array where index {@code i} holds the seeds of pit
+     * {@code i + 1}.
+     */
+    int[] toPits() {
+        return Arrays.copyOfRange(pits, 1, computerStore + 1);
+    }
+
+    /**
+     * Gets the player to move.
+     *
+     * @return The player who moves next.
+     */
+    Player next() {
+        return nextPlayer;
+    }
+
+    /**
+     * Sows the seeds of a pit for the player to move. The caller has to make
+     * sure the pit belongs to that player, is not empty and the game is not
+     * over.
+     *
+     * @param pit The number of the pit to sow from.
+     * @return The record to take the move back with {@link #unmake(long)}.
+     */
+    long make(int pit) {
+        Player mover = nextPlayer;
+        int store = mover == Player.HUMAN ? humanStore : computerStore;
+        int skipped = mover == Player.HUMAN ? computerStore : humanStore;
+        int toSeed = pits[pit];
+        setSeeds(pit, 0);
+        int currentPit = pit;
+        for (int i = 1; i < toSeed; i++) {
+            currentPit = nextPit(currentPit, skipped);
+            setSeeds(currentPit, pits[currentPit] + 1);
+        }
+        currentPit = nextPit(currentPit, skipped);
+        int captured = 0;
+        int opposite = computerStore - currentPit;
+        if (isPlayersPit(mover, currentPit) && pits[currentPit] == 0
+                && pits[opposite] != 0) {
+            captured = pits[opposite];
+            setSeeds(opposite, 0);
+            setSeeds(store, pits[store] + captured + 1);
+        } else {
+            setSeeds(currentPit, pits[currentPit] + 1);
+        }
+        long undo = pit | (long) currentPit << TARGET_SHIFT
+                | (long) toSeed << SOWN_SHIFT
+                | (long) captured << CAPTURED_SHIFT;
+        if (currentPit != store) {
+            nextPlayer = mover.getOpposite();
+            undo |= SWITCHED;
+        }
+        return undo;
+    }
+
+    /**
+     * Takes back the last move which was made and not taken back yet.
+     *
+     * @param undo The record returned when the move was made.
+     */
+    void unmake(long undo) {
+        if ((undo & SWITCHED) != 0) {
+            nextPlayer = nextPlayer.getOpposite();
+        }
+        Player mover = nextPlayer;
+        int store = mover == Player.HUMAN ? humanStore : computerStore;
+        int skipped = mover == Player.HUMAN ? computerStore : humanStore;
+        int pit = (int) (undo & PIT_MASK);
+        int target = targetPit(undo);
+        int toSeed = (int) (undo >>> SOWN_SHIFT & SEED_MASK);
+        int captured = capturedSeeds(undo);
+        if (captured != 0) {
+            setSeeds(store, pits[store] - captured - 1);
+            setSeeds(computerStore - target, captured);
+        } else {
+            setSeeds(target, pits[target] - 1);
+        }
+        int currentPit = pit;
+        for (int i = 1; i < toSeed; i++) {
+            currentPit = nextPit(currentPit, skipped);
+            setSeeds(currentPit, pits[currentPit] - 1);
+        }
+        setSeeds(pit, toSeed);
+    }
+
+    /**
+     * Gets the pit in which the last seed of a move was sown.
+     *
+     * @param undo The record of the move.
+     * @return The number of the target pit.
+     */
+    static int targetPit(long undo) {
+        return (int) (undo >>> TARGET_SHIFT & PIT_MASK);
+    }
+
+    /**
+     * Gets the number of seeds a move captured from the opponent, without
+     * the capturing seed itself.
+     *
+     * @param undo The record of the move.
+     * @return The captured seeds, {@code 0} if nothing was captured.
+     */
+    static int capturedSeeds(long undo) {
+        return (int) (undo >>> CAPTURED_SHIFT & SEED_MASK);
+    }
+
+    /**
+     * Checks if the game is over, i.e., the pits of one player are all
+     * empty.
+     *
+     * @return {@code true} if and only if the game is over.
+     */
+    boolean isGameOver() {
+        return humanNonEmpty == 0 || computerNonEmpty == 0;
+    }
+
+    /**
+     * Scores this position and the positions below it up to the level of
+     * the search. This is an alpha-beta variant of the additive min/max
+     * scoring: the score of a node is its own evaluation plus the minimum
+     * (human to move) or maximum (machine to move) score of its children, so
+     * the window is shifted by the node's evaluation before it is handed down
+     * to the children. The shifted window is widened by
+     * {@link #WINDOW_TOLERANCE} so that rounding of the shift can never cut
+     * off a child which would change the result.
+     * <p>
+     * Scores strictly inside {@code (alpha, beta)} are exact, a score of at
+     * most {@code alpha} is an upper bound and a score of at least
+     * {@code beta} is a lower bound of the exact score. Scores and bounds
+     * are remembered in the transposition table of the search, keyed by the
+     * position, the player to move, the depth of the node and the level,
+     * together with whether the search below the node reached the horizon,
+     * which a hit reports to the search as if it had searched the node.
+     * <p>
+     * The position is the same again when this method returns normally. If
+     * the search is abandoned by an exception, the board is left in some
+     * position in between and must not be used any more.
+     *
+     * @param search The search this node belongs to.
+     * @param i      The depth of this node, the children of the root are at
+     *               1.
+     * @param alpha  The score the machine is already guaranteed elsewhere.
+     * @param beta   The score the human is already guaranteed elsewhere.
+     * @return The score of this node with respect to the window.
+     * @throws InterruptedException If the search was interrupted.
+     * @throws SearchContext.TimeoutException If the search ran out of time.
+     */
+    double score(SearchContext search, int i, double alpha, double beta)
+            throws InterruptedException {
+        search.visit();
+        TranspositionTable table = search.table();
+        long key = hash ^ Zobrist.player(nextPlayer)
+                ^ Zobrist.depth(i, search.level());
+        double[] probed = search.probedScore();
+        int hit = table.probe(key, probed);
+        if (hit != TranspositionTable.MISS) {
+            search.tableHit();
+            double stored = probed[0];
+            boolean usable = switch (hit & TranspositionTable.BOUND) {
+                case TranspositionTable.EXACT -> true;
+                case TranspositionTable.LOWER_BOUND -> stored >= beta;
+                case TranspositionTable.UPPER_BOUND -> stored <= alpha;
+                default -> false;
+            };
+            if (usable) {
+                if ((hit & TranspositionTable.HORIZON) != 0) {
+                    // the stored search was cut off, a deeper one may differ
+                    search.reachHorizon();
+                }
+                return stored;
+            }
+        }
+        double score = evaluate(i);
+        if (isGameOver()) {
+            search.leaf();
+            table.store(key, 0, TranspositionTable.EXACT, score);
+            return score;
+        } else if (i == search.level()) {
+            search.leaf();
+            search.reachHorizon();
+            table.store(key, 0, TranspositionTable.EXACT
+                    | TranspositionTable.HORIZON, score);
+            return score;
+        }
+        double lower = alpha - score - WINDOW_TOLERANCE;
+        double upper = beta - score + WINDOW_TOLERANCE;
+        boolean before = search.startSubtree();
+        int count = generateMoves(search, i);
+        int[] moves = moveLists[i];
+        double childOffset = switch (nextPlayer) {
+            case HUMAN -> {
+                double best = Double.POSITIVE_INFINITY;
+                for (int k = 0; k < count; k++) {
+                    long undo = make(moves[k]);
+                    double value = score(search, i + 1, lower, upper);
+                    unmake(undo);
+                    if (value < best) {
+                        best = value;
+                        if (best <= lower) {
+                            search.cutoff(i, moves[k], search.level() - i);
+                            break;
+                        }
+                        upper = Double.min(upper, best);
+                    }
+                }
+                yield best;
+            }
+            case COMPUTER -> {
+                double best = Double.NEGATIVE_INFINITY;
+                for (int k = 0; k < count; k++) {
+                    long undo = make(moves[k]);
+                    double value = score(search, i + 1, lower, upper);
+                    unmake(undo);
+                    if (value > best) {
+                        best = value;
+                        if (best >= upper) {
+                            search.cutoff(i, moves[k], search.level() - i);
+                            break;
+                        }
+                        lower = Double.max(lower, best);
+                    }
+                }
+                yield best;
+            }
+            case NOBODY -> 0.0;
+        };
+        boolean horizon = search.finishSubtree(before);
+        double result = childOffset + score;
+        int bound;
+        if (result <= alpha) {
+            bound = TranspositionTable.UPPER_BOUND;
+        } else if (result >= beta) {
+            bound = TranspositionTable.LOWER_BOUND;
+        } else {
+            bound = TranspositionTable.EXACT;
+        }
+        if (horizon) {
+            bound |= TranspositionTable.HORIZON;
+        }
+        table.store(key, search.level() - i, bound, result);
+        return result;
+    }
+
+    private void setSeeds(int pit, int seeds) {
+        hash ^= Zobrist.pit(pit, pits[pit]) ^ Zobrist.pit(pit, seeds);
+        count(pit, pits[pit], seeds);
+        pits[pit] = seeds;
+    }
+
+    /**
+     * Updates the seeds per player and the number of non-empty pits per
+     * player to a change of the content of a pit.
+     */
+    private void count(int pit, int oldSeeds, int newSeeds) {
+        int filled = (newSeeds != 0 ? 1 : 0) - (oldSeeds != 0 ? 1 : 0);
+        if (pit <= humanStore) {
+            humanSeeds += newSeeds - oldSeeds;
+            if (pit != humanStore) {
+                humanNonEmpty += filled;
+            }
+        } else {
+            computerSeeds += newSeeds - oldSeeds;
+            if (pit != computerStore) {
+                computerNonEmpty += filled;
+            }
+        }
+    }
+
+    private int nextPit(int pit, int skipped) {
+        int next = pit % computerStore + 1;
+        return next == skipped ? next % computerStore + 1 : next;
+    }
+
+    private boolean isPlayersPit(Player player, int pit) {
+        return switch (player) {
+            case HUMAN -> pit >= 1 && pit <= pitsPerPlayer;
+            case COMPUTER -> pit >= computerFirstPit && pit <= computerLastPit;
+            case NOBODY -> false;
+        };
+    }
+
+    private Player getWinner() {
+        if (humanSeeds > computerSeeds) {
+            return Player.HUMAN;
+        } else if (computerSeeds > humanSeeds) {
+            return Player.COMPUTER;
+        } else {
+            return Player.NOBODY;
+        }
+    }
+
+    /**
+     * Evaluates this position on its own, without looking at any moves.
+     *
+     * @param i The depth of this position in the search.
+     * @return The evaluation, which is higher the better the position is for
+     * the machine.
+     */
+    double evaluate(int i) {
+        return 3 * scoreS() + scoreC() + scoreP() + scoreV(i);
+    }
+
+    private double scoreS() {
+        double scoreSH = pits[humanStore];
+        double scoreSM = pits[computerStore];
+        double scoreS = scoreSM - 1.5 * scoreSH;
+        return scoreS;
+    }
+
+    /**
+     * Scores the seeds both players could capture with their next move.
+     *
+     * @return The possible captures of the machine minus one and a half
+     * times those of the human, or {@code 0} if the game is over.
+     */
+    double scoreC() {
+        if (isGameOver()) {
+            return 0.0;
+        }
+        double scoreCH = caught(Player.HUMAN, 1, pitsPerPlayer);
+        double scoreCM = caught(Player.COMPUTER, computerFirstPit,
+                computerLastPit);
+        double scoreC = scoreCM - 1.5 * scoreCH;
+        return scoreC;
+    }
+
+    /**
+     * Sums up the seeds a player could capture with her next move. Of all
+     * moves ending in the same pit, only the one capturing most counts.
+     */
+    private int caught(Player player, int first, int last) {
+        int[] best = caughtPerPit;
+        Arrays.fill(best, 0);
+        int sum = 0;
+        for (int i = first; i <= last; i++) {
+            if (pits[i] != 0) {
+                int target = landingPit(player, i);
+                int captured = captured(player, i, target);
+                if (captured > best[target]) {
+                    sum += captured - best[target];
+                    best[target] = captured;
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Collects the possible moves of the player to move at the given depth,
+     * most promising first: extra turns, then captures by the number of
+     * captured seeds, then killer moves and finally the remaining moves by
+     * their history score. Moves of equal priority keep the order of their
+     * pits, rotated as requested by the search.
+     *
+     * @return The number of moves, which are stored in {@code moveLists[i]}.
+     */
+    private int generateMoves(SearchContext search, int i) {
+        if (i >= moveLists.length) {
+            moveLists = Arrays.copyOf(moveLists, i + 1);
+            moveKeys = Arrays.copyOf(moveKeys, i + 1);
+        }
+        if (moveLists[i] == null) {
+            moveLists[i] = new int[pitsPerPlayer];
+            moveKeys[i] = new long[pitsPerPlayer];
+        }
+        int[] moves = moveLists[i];
+        long[] keys = moveKeys[i];
+        int first = nextPlayer == Player.HUMAN ? 1 : computerFirstPit;
+        int rotation = search.rotation(i, pitsPerPlayer);
+        boolean ordering = search.isMoveOrdering();
+        int count = 0;
+        for (int k = 0; k < pitsPerPlayer; k++) {
+            int j = first + (k + rotation) % pitsPerPlayer;
+            if (pits[j] != 0) {
+                long key = ordering ? priority(search, i, j) : 0;
+                int slot = count++;
+                while (slot > 0 && keys[slot - 1] < key) {
+                    moves[slot] = moves[slot - 1];
+                    keys[slot] = keys[slot - 1];
+                    slot--;
+                }
+                moves[slot] = j;
+                keys[slot] = key;
+            }
+        }
+        return count;
+    }
+
+    private long priority(SearchContext search, int i, int pit) {
+        int target = landingPit(nextPlayer, pit);
+        int store = nextPlayer == Player.HUMAN ? humanStore : computerStore;
+        if (target == store) {
+            return EXTRA_TURN;
+        }
+        int captured = captured(nextPlayer, pit, target);
+        if (captured != 0) {
+            return CAPTURE | captured;
+        }
+        int killer = search.killerRank(i, pit);
+        if (killer != 0) {
+            return KILLER | killer;
+        }
+        return search.history(pit);
+    }
+
+    /**
+     * Gets the pit in which a move of the player ends, without making it.
+     */
+    private int landingPit(Player player, int pit) {
+        int cycle = 2 * pitsPerPlayer + 1;
+        return cyclePit(player, (cycleIndex(player, pit) + pits[pit]) % cycle);
+    }
+
+    /**
+     * Gets the seeds a move of the player ending in the target pit captures
+     * from the opponent, without making it. A move can only capture if it
+     * does not sow around the whole board, so the opposite pit holds its
+     * current seeds plus the one seed the move may have dropped there on the
+     * way.
+     */
+    private int captured(Player player, int pit, int target) {
+        int seeds = pits[pit];
+        int cycle = 2 * pitsPerPlayer + 1;
+        if (seeds > cycle || !isPlayersPit(player, target)
+                || (target != pit && pits[target] != 0)) {
+            return 0;
+        }
+        int opposite = computerStore - target;
+        int passed = (cycleIndex(player, opposite) - cycleIndex(player, pit)
+                + cycle) % cycle;
+        return pits[opposite] + (passed < seeds ? 1 : 0);
+    }
+
+    /**
+     * Gets the position of a pit on the way a player sows along, starting
+     * with her first pit and leaving out the opponent's store.
+     */
+    private int cycleIndex(Player player, int pit) {
+        if (player == Player.HUMAN) {
+            return pit - 1;
+        } else {
+            return pit >= computerFirstPit ? pit - computerFirstPit
+                    : pit + pitsPerPlayer;
+        }
+    }
+
+    private int cyclePit(Player player, int index) {
+        if (player == Player.HUMAN) {
+            return index + 1;
+        } else {
+            return index <= pitsPerPlayer ? computerFirstPit + index
+                    : index - pitsPerPlayer;
+        }
+    }
+
+    private double scoreP() {
+        double scorePM = 0;
+        double scorePH = 0;
+        for (int i = 1; i <= pitsPerPlayer; i++) {
+            if (pits[i] == 0
+                    && pits[computerStore - i] >= seedsPerPit * 2) {
+                scorePH++;
+            }
+        }
+        for (int i = computerFirstPit; i <= computerLastPit; i++) {
+            if (pits[i] == 0
+                    && pits[computerStore - i] >= seedsPerPit * 2) {
+                scorePM++;
+            }
+        }
+        double scoreP = scorePM - 1.5 * scorePH;
+        return scoreP;
+    }
+
+    private double scoreV(int i) {
+        if (isGameOver()) {
+            double scoreV = switch (getWinner()) {
+                case HUMAN -> (500.0 / i) * -1.5;
+                case COMPUTER -> 500.0 / i;
+                case NOBODY -> 0.0;
+            };
+            return scoreV;
+        } else {
+            return 0.0;
+        }
+    }
+}
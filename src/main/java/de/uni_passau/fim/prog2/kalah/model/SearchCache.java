@@ -0,0 +1,171 @@
+package de.uni_passau.fim.prog2.kalah.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File of the machine's moves in already searched positions, which keeps
+ * them across restarts of the application. The file has a fixed size and is
+ * accessed through a memory-mapped buffer.
+ * <p>
+ * Every slot of the file holds one position, identified by its hash
+ * together with the rules and the level it was searched with, and the best
+ * move found with its score. A new entry replaces the one in its slot. Each
+ * entry is stored as three longs: the key combined with the data by
+ * exclusive or, the score and the level together with the move. A slot whose
+ * parts do not belong together, because the file was damaged or only
+ * partially written, fails the check against the key and is never mistaken
+ * for a hit. A file with an unknown header or size is cleared when opened.
+ */
+public final class SearchCache {
+
+    private static final int MAGIC = 0x4b534348;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * Integer.BYTES;
+    private static final int ENTRY_BYTES = 3 * Long.BYTES;
+
+    /**
+     * The largest size of a cache file in megabytes, which keeps it within
+     * the limits of a single mapped buffer.
+     */
+    public static final int MAX_SIZE_MB = 1024;
+
+    private final MappedByteBuffer buffer;
+    private final int slots;
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+
+    private SearchCache(MappedByteBuffer buffer, int slots) {
+        this.buffer = buffer;
+        this.slots = slots;
+    }
+
+    /**
+     * Opens the cache in a file, which is created if it does not exist yet.
+     * An existing file written with another size or format is cleared.
+     *
+     * @param file      The file of the cache.
+     * @param megabytes The size of the file in megabytes, between 1 and
+     *                  {@link #MAX_SIZE_MB}.
+     * @return The cache.
+     * @throws IOException If the file cannot be read or written.
+     */
+    public static SearchCache open(Path file, int megabytes)
+            throws IOException {
+        if (megabytes < 1 || megabytes > MAX_SIZE_MB) {
+            throw new IllegalArgumentException("Cache size must be between 1"
+                    + " and " + MAX_SIZE_MB + " MB.");
+        }
+        int slots = Integer.highestOneBit(
+                (int) ((long) megabytes * 1024 * 1024 / ENTRY_BYTES));
+        long size = HEADER_BYTES + (long) slots * ENTRY_BYTES;
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            boolean valid = channel.size() == size
+                    && channel.read(header, 0) == HEADER_BYTES
+                    && header.getInt(0) == MAGIC
+                    && header.getInt(Integer.BYTES) == VERSION
+                    && header.getInt(2 * Integer.BYTES) == slots;
+            if (!valid) {
+                // the file grows again with zeros, which are empty slots
+                channel.truncate(0);
+            }
+            MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_WRITE, 0, size);
+            if (!valid) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(Integer.BYTES, VERSION);
+                buffer.putInt(2 * Integer.BYTES, slots);
+            }
+            return new SearchCache(buffer, slots);
+        }
+    }
+
+    /**
+     * Looks up the move found in an earlier search.
+     *
+     * @param key   The hash of the position and the rules.
+     * @param level The level of the search.
+     * @return The source pit of the best move, or {@code -1} if the position
+     * was not searched at this level yet.
+     */
+    synchronized int bestPit(long key, int level) {
+        lookups.incrementAndGet();
+        long entryKey = key ^ Zobrist.depth(0, level);
+        int entry = entry(entryKey);
+        long check = buffer.getLong(entry);
+        long bits = buffer.getLong(entry + Long.BYTES);
+        long meta = buffer.getLong(entry + 2 * Long.BYTES);
+        if ((check ^ bits ^ meta) != entryKey || meta == 0
+                || (int) (meta >>> 16) != level) {
+            return -1;
+        }
+        hits.incrementAndGet();
+        return (int) (meta & 0xffff);
+    }
+
+    /**
+     * Remembers the move found by a search.
+     *
+     * @param key   The hash of the position and the rules.
+     * @param level The level of the search.
+     * @param pit   The source pit of the best move.
+     * @param score The score of the best move.
+     */
+    synchronized void store(long key, int level, int pit, double score) {
+        long entryKey = key ^ Zobrist.depth(0, level);
+        int entry = entry(entryKey);
+        long bits = Double.doubleToRawLongBits(score);
+        long meta = (long) level << 16 | pit;
+        buffer.putLong(entry, entryKey ^ bits ^ meta);
+        buffer.putLong(entry + Long.BYTES, bits);
+        buffer.putLong(entry + 2 * Long.BYTES, meta);
+    }
+
+    /**
+     * Writes all changes of the cache to the file.
+     */
+    public synchronized void flush() {
+        buffer.force();
+    }
+
+    /**
+     * Gets the number of lookups since the cache was opened.
+     *
+     * @return The number of positions looked up.
+     */
+    public long getLookups() {
+        return lookups.get();
+    }
+
+    /**
+     * Gets the number of successful lookups since the cache was opened.
+     *
+     * @return The number of positions found.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the share of lookups which found a move.
+     *
+     * @return The hit rate between {@code 0} and {@code 1}, {@code 0} if
+     * nothing was looked up yet.
+     */
+    public double getHitRate() {
+        long total = lookups.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    private int entry(long key) {
+        return HEADER_BYTES + (int) (key & (slots - 1)) * ENTRY_BYTES;
+    }
+}
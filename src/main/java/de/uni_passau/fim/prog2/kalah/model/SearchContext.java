@@ -0,0 +1,364 @@
+package de.uni_passau.fim.prog2.kalah.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The state of a single search of the machine for its next move. It defines
+ * the depth at which the leaves of the search tree are evaluated and
+ * optionally a point in time at which the search is abandoned. The scores it
+ * finds are remembered in a transposition table.
+ * <p>
+ * A context must only be used by one thread at a time. Searches running in
+ * parallel use contexts created by {@link #fork()}, which share the deadline
+ * and the cancellation of the original context. Contexts created by
+ * {@link #fork(int)} additionally visit the moves in a different order, so
+ * threads searching the same position spread over different parts of the
+ * tree.
+ */
+final class SearchContext {
+
+    /**
+     * The number of visited nodes after which the clock and the cancellation
+     * are checked again. Must be a power of two.
+     */
+    private static final int CHECK_INTERVAL = 1024;
+
+    private static final TimeoutException TIMEOUT = new TimeoutException();
+
+    /**
+     * The limit of the history score of a move, which keeps it below the
+     * priorities of extra turns, captures and killer moves.
+     */
+    private static final long MAX_HISTORY = (1L << 56) - 1;
+
+    private final int level;
+    private final TranspositionTable table;
+    private final boolean timed;
+    private final long deadline;
+    private final AtomicBoolean cancelled;
+    private final int order;
+    private final double[] probedScore = new double[1];
+    private final int[][] killers;
+    private long[] history = new long[0];
+    private boolean ordering = true;
+    private long nodes;
+    private long leaves;
+    private long tableHits;
+    private boolean horizonReached;
+
+    /**
+     * Creates the context of a search without time limit.
+     *
+     * @param level The depth of the leaves, must be at least 1.
+     * @param table The table to look up and store scores in.
+     */
+    SearchContext(int level, TranspositionTable table) {
+        this.level = level;
+        this.table = table;
+        this.timed = false;
+        this.deadline = 0;
+        this.cancelled = new AtomicBoolean();
+        this.order = 0;
+        this.killers = new int[level + 1][2];
+    }
+
+    /**
+     * Creates the context of a search which is abandoned once the clock
+     * passes the deadline.
+     *
+     * @param level    The depth of the leaves, must be at least 1.
+     * @param deadline The deadline in terms of {@link System#nanoTime()}.
+     * @param table    The table to look up and store scores in.
+     */
+    SearchContext(int level, long deadline, TranspositionTable table) {
+        this.level = level;
+        this.table = table;
+        this.timed = true;
+        this.deadline = deadline;
+        this.cancelled = new AtomicBoolean();
+        this.order = 0;
+        this.killers = new int[level + 1][2];
+    }
+
+    private SearchContext(SearchContext original, int order) {
+        this.level = original.level;
+        this.table = original.table;
+        this.timed = original.timed;
+        this.deadline = original.deadline;
+        this.cancelled = original.cancelled;
+        this.order = order;
+        this.killers = new int[level + 1][2];
+        this.ordering = original.ordering;
+    }
+
+    /**
+     * Creates a context for a part of this search which runs on another
+     * thread.
+     *
+     * @return A context with the same depth, deadline and cancellation.
+     */
+    SearchContext fork() {
+        return new SearchContext(this, order);
+    }
+
+    /**
+     * Creates a context for a thread which helps this search by searching
+     * the same position in a different order.
+     *
+     * @param order The number of the helping thread, at least 1.
+     * @return A context with the same depth, deadline and cancellation.
+     */
+    SearchContext fork(int order) {
+        return new SearchContext(this, order);
+    }
+
+    /**
+     * Takes over the results of a part of this search created by
+     * {@link #fork()} once it has finished.
+     *
+     * @param part The context of the finished part.
+     */
+    void join(SearchContext part) {
+        nodes += part.nodes;
+        leaves += part.leaves;
+        tableHits += part.tableHits;
+        horizonReached |= part.horizonReached;
+    }
+
+    /**
+     * Cancels this search and all of its parts. They stop at the next check.
+     */
+    void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * Gets the depth of the leaves.
+     *
+     * @return The depth at which nodes are evaluated without looking further.
+     */
+    int level() {
+        return level;
+    }
+
+    /**
+     * Gets the table in which the scores of this search are remembered.
+     *
+     * @return The transposition table, shared by all parts of the search.
+     */
+    TranspositionTable table() {
+        return table;
+    }
+
+    /**
+     * Gets the rotation of the order in which the moves of a node at the
+     * given depth are visited. It is always {@code 0} for the thread whose
+     * results are used, so that thread visits the moves by ascending pit.
+     *
+     * @param i       The depth of the node.
+     * @param choices The number of moves a player has at most.
+     * @return The number of moves to skip before wrapping around.
+     */
+    int rotation(int i, int choices) {
+        return order == 0 ? 0 : (order + i) % choices;
+    }
+
+    /**
+     * Enables or disables ordering the moves of a node by how promising they
+     * are. Without ordering, moves are visited by ascending pit only.
+     *
+     * @param ordering Whether to order the moves.
+     */
+    void setMoveOrdering(boolean ordering) {
+        this.ordering = ordering;
+    }
+
+    /**
+     * Checks whether the moves of a node are ordered by how promising they
+     * are.
+     *
+     * @return {@code true} if and only if moves are ordered.
+     */
+    boolean isMoveOrdering() {
+        return ordering;
+    }
+
+    /**
+     * Remembers a move which cut off the search of the other moves of a node
+     * as killer move of its depth, and raises its history score by the square
+     * of the depth searched below the node.
+     *
+     * @param i         The depth of the node.
+     * @param pit       The pit of the move.
+     * @param remaining The depth of the search below the node.
+     */
+    void cutoff(int i, int pit, int remaining) {
+        int[] slots = killers[i];
+        if (slots[0] != pit) {
+            slots[1] = slots[0];
+            slots[0] = pit;
+        }
+        if (pit >= history.length) {
+            history = Arrays.copyOf(history, pit + 1);
+        }
+        history[pit] = Long.min(history[pit] + (long) remaining * remaining,
+                MAX_HISTORY);
+    }
+
+    /**
+     * Gets how recently a move cut off the search of a node at the given
+     * depth.
+     *
+     * @param i   The depth of the node.
+     * @param pit The pit of the move.
+     * @return {@code 2} for the latest, {@code 1} for the one before and
+     * {@code 0} for any other move.
+     */
+    int killerRank(int i, int pit) {
+        if (killers[i][0] == pit) {
+            return 2;
+        } else if (killers[i][1] == pit) {
+            return 1;
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Gets how often and how deep a move cut off the search so far.
+     *
+     * @param pit The pit of the move.
+     * @return The history score, less than {@code 2^56}.
+     */
+    long history(int pit) {
+        return pit < history.length ? history[pit] : 0;
+    }
+
+    /**
+     * Gets the number of nodes visited by this search and the parts joined
+     * into it.
+     *
+     * @return The number of visited nodes.
+     */
+    long nodes() {
+        return nodes;
+    }
+
+    /**
+     * Gets the number of nodes evaluated without looking at their moves,
+     * because the game was over or the depth of the leaves was reached.
+     *
+     * @return The number of evaluated leaves.
+     */
+    long leaves() {
+        return leaves;
+    }
+
+    /**
+     * Gets the number of nodes for which the transposition table had an
+     * entry.
+     *
+     * @return The number of table hits.
+     */
+    long tableHits() {
+        return tableHits;
+    }
+
+    /**
+     * Records that a node was evaluated without looking at its moves.
+     */
+    void leaf() {
+        leaves++;
+    }
+
+    /**
+     * Records that the transposition table had an entry for a node.
+     */
+    void tableHit() {
+        tableHits++;
+    }
+
+    /**
+     * Gets an array which receives the scores looked up by this search.
+     *
+     * @return An array of length 1 owned by this context.
+     */
+    double[] probedScore() {
+        return probedScore;
+    }
+
+    /**
+     * Counts a visited node and abandons the search if it was cancelled or
+     * ran out of time.
+     *
+     * @throws InterruptedException If the search was cancelled or the
+     *                              executing thread was interrupted.
+     * @throws TimeoutException     If the deadline has passed.
+     */
+    void visit() throws InterruptedException {
+        nodes++;
+        if ((nodes & (CHECK_INTERVAL - 1)) == 0) {
+            if (cancelled.get() || Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            } else if (timed && System.nanoTime() - deadline > 0) {
+                throw TIMEOUT;
+            }
+        }
+    }
+
+    /**
+     * Records that a leaf was evaluated at the full depth while the game
+     * still went on.
+     */
+    void reachHorizon() {
+        horizonReached = true;
+    }
+
+    /**
+     * Starts recording whether the search below a node reaches the horizon.
+     * Every call must be followed by {@link #finishSubtree(boolean)} with its
+     * result once the node is searched.
+     *
+     * @return Whether the search reached the horizon before the node.
+     */
+    boolean startSubtree() {
+        boolean before = horizonReached;
+        horizonReached = false;
+        return before;
+    }
+
+    /**
+     * Finishes recording whether the search below a node reaches the
+     * horizon.
+     *
+     * @param before The result of the matching {@link #startSubtree()}.
+     * @return Whether the search below the node reached the horizon.
+     */
+    boolean finishSubtree(boolean before) {
+        boolean below = horizonReached;
+        horizonReached |= before;
+        return below;
+    }
+
+    /**
+     * Checks whether any line of play was cut off by the depth limit. If not,
+     * a deeper search yields the same result.
+     *
+     * @return {@code true} if and only if a leaf at full depth was evaluated
+     * in a game which was not over yet.
+     */
+    boolean isHorizonReached() {
+        return horizonReached;
+    }
+
+    /**
+     * Signals that a search ran out of time. As it only unwinds the search,
+     * a single instance without stack trace is reused.
+     */
+    static final class TimeoutException extends RuntimeException {
+        private TimeoutException() {
+            super("Search ran out of time.", null, false, false);
+        }
+    }
+}
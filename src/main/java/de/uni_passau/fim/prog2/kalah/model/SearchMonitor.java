@@ -0,0 +1,144 @@
+package de.uni_passau.fim.prog2.kalah.model;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Collects the statistics of the machine's moves in a game session, together
+ * with the hit rate of the search cache of the session, if any. The
+ * statistics can be read directly or, once {@link #register() registered},
+ * through JMX under {@link #OBJECT_NAME}.
+ */
+public class SearchMonitor implements SearchStatisticsMXBean {
+
+    /**
+     * The name under which the monitor is registered with the platform
+     * MBean server.
+     */
+    public static final String OBJECT_NAME
+            = "de.uni_passau.fim.prog2.kalah:type=SearchStatistics";
+
+    private SearchStatistics last = SearchStatistics.NONE;
+    private long moves;
+    private long totalNodes;
+    private long totalElapsedNanos;
+    private volatile SearchCache searchCache;
+
+    /**
+     * Registers this monitor with the platform MBean server.
+     *
+     * @throws JMException If a monitor is registered already or the server
+     *                     refuses it.
+     */
+    public void register() throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                new ObjectName(OBJECT_NAME));
+    }
+
+    /**
+     * Sets the search cache whose lookups are reported.
+     *
+     * @param cache The cache of the session, or {@code null} if there is
+     *              none.
+     */
+    public void setSearchCache(SearchCache cache) {
+        this.searchCache = cache;
+    }
+
+    /**
+     * Records the statistics of a machine move.
+     *
+     * @param statistics The statistics of the move.
+     */
+    public synchronized void record(SearchStatistics statistics) {
+        last = statistics;
+        moves++;
+        totalNodes += statistics.nodes();
+        totalElapsedNanos += statistics.elapsedNanos();
+    }
+
+    /**
+     * Gets the statistics of the last recorded move.
+     *
+     * @return The statistics, {@link SearchStatistics#NONE} if nothing was
+     * recorded yet.
+     */
+    public synchronized SearchStatistics getLast() {
+        return last;
+    }
+
+    @Override
+    public synchronized long getMoves() {
+        return moves;
+    }
+
+    @Override
+    public synchronized long getTotalNodes() {
+        return totalNodes;
+    }
+
+    @Override
+    public synchronized double getTotalElapsedMillis() {
+        return totalElapsedNanos / 1e6;
+    }
+
+    @Override
+    public synchronized double getAverageNodesPerSecond() {
+        return totalElapsedNanos == 0 ? 0.0
+                : totalNodes * 1e9 / totalElapsedNanos;
+    }
+
+    @Override
+    public String getLastSource() {
+        return getLast().source().getDescription();
+    }
+
+    @Override
+    public long getLastNodes() {
+        return getLast().nodes();
+    }
+
+    @Override
+    public long getLastLeaves() {
+        return getLast().leaves();
+    }
+
+    @Override
+    public long getLastTableHits() {
+        return getLast().tableHits();
+    }
+
+    @Override
+    public int getLastDepth() {
+        return getLast().depth();
+    }
+
+    @Override
+    public double getLastElapsedMillis() {
+        return getLast().elapsedNanos() / 1e6;
+    }
+
+    @Override
+    public double getLastNodesPerSecond() {
+        return getLast().nodesPerSecond();
+    }
+
+    @Override
+    public long getSearchCacheLookups() {
+        SearchCache cache = searchCache;
+        return cache == null ? 0 : cache.getLookups();
+    }
+
+    @Override
+    public long getSearchCacheHits() {
+        SearchCache cache = searchCache;
+        return cache == null ? 0 : cache.getHits();
+    }
+
+    @Override
+    public double getSearchCacheHitRate() {
+        SearchCache cache = searchCache;
+        return cache == null ? 0.0 : cache.getHitRate();
+    }
+}
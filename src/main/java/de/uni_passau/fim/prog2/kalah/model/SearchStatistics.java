@@ -0,0 +1,97 @@
+package de.uni_passau.fim.prog2.kalah.model;
+
+/**
+ * Record describing how the machine found the moves of a position.
+ *
+ * @param source       Where the moves came from.
+ * @param nodes        The number of positions visited.
+ * @param leaves       The number of positions evaluated without looking at
+ *                     their moves.
+ * @param tableHits    The number of positions found in the transposition
+ *                     table.
+ * @param depth        The depth of the deepest completed search, {@code 0}
+ *                     if nothing was searched.
+ * @param elapsedNanos The time it took in nanoseconds.
+ */
+public record SearchStatistics(Source source, long nodes, long leaves,
+                               long tableHits, int depth,
+                               long elapsedNanos) {
+
+    /**
+     * The statistics of a board on which the machine has not chosen or
+     * ranked any moves.
+     */
+    public static final SearchStatistics NONE
+            = new SearchStatistics(Source.NONE, 0, 0, 0, 0, 0);
+
+    /**
+     * Gets the number of positions visited per second.
+     *
+     * @return The search speed, {@code 0} if no time elapsed.
+     */
+    public double nodesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : nodes * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Formats the statistics as a single short line, e.g. for a status bar.
+     *
+     * @return The statistics as text.
+     */
+    public String toStatusLine() {
+        return switch (source) {
+            case NONE -> "";
+            case SEARCH -> String.format("depth %d, %,d nodes, %,d leaves, "
+                    + "%,d table hits, %.0f ms, %,.0f nodes/s", depth, nodes,
+                    leaves, tableHits, elapsedNanos / 1e6, nodesPerSecond());
+            default -> String.format("%s, %.1f ms", source.getDescription(),
+                    elapsedNanos / 1e6);
+        };
+    }
+
+    /**
+     * The ways the machine can find its moves.
+     */
+    public enum Source {
+
+        /**
+         * No moves were found yet.
+         */
+        NONE("none"),
+
+        /**
+         * The moves were scored by a search of the game tree.
+         */
+        SEARCH("search"),
+
+        /**
+         * The move was taken from the opening book.
+         */
+        OPENING_BOOK("opening book"),
+
+        /**
+         * The move was taken from the persistent cache of searched moves.
+         */
+        SEARCH_CACHE("search cache"),
+
+        /**
+         * The moves were scored by the endgame table.
+         */
+        ENDGAME_TABLE("endgame table");
+
+        private final String description;
+
+        Source(String description) {
+            this.description = description;
+        }
+
+        /**
+         * Gets a short description for the user.
+         *
+         * @return The description in lower case.
+         */
+        public String getDescription() {
+            return description;
+        }
+    }
+}
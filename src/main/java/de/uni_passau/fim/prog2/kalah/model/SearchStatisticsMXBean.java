@@ -0,0 +1,112 @@
+package de.uni_passau.fim.prog2.kalah.model;
+
+/**
+ * Management interface of the statistics of the machine's moves, so that
+ * they can be watched locally by JMX clients such as JConsole.
+ */
+public interface SearchStatisticsMXBean {
+
+    /**
+     * Gets the number of machine moves recorded so far.
+     *
+     * @return The number of moves.
+     */
+    long getMoves();
+
+    /**
+     * Gets the number of positions visited by all recorded moves.
+     *
+     * @return The total number of nodes.
+     */
+    long getTotalNodes();
+
+    /**
+     * Gets the time the machine spent on all recorded moves.
+     *
+     * @return The total time in milliseconds.
+     */
+    double getTotalElapsedMillis();
+
+    /**
+     * Gets the number of positions visited per second over all recorded
+     * moves.
+     *
+     * @return The average search speed.
+     */
+    double getAverageNodesPerSecond();
+
+    /**
+     * Gets where the last move came from.
+     *
+     * @return The description of the source of the last move.
+     */
+    String getLastSource();
+
+    /**
+     * Gets the number of positions visited for the last move.
+     *
+     * @return The number of nodes.
+     */
+    long getLastNodes();
+
+    /**
+     * Gets the number of positions evaluated without looking at their moves
+     * for the last move.
+     *
+     * @return The number of leaves.
+     */
+    long getLastLeaves();
+
+    /**
+     * Gets the number of positions found in the transposition table for the
+     * last move.
+     *
+     * @return The number of table hits.
+     */
+    long getLastTableHits();
+
+    /**
+     * Gets the depth of the deepest completed search for the last move.
+     *
+     * @return The depth.
+     */
+    int getLastDepth();
+
+    /**
+     * Gets the time the machine spent on the last move.
+     *
+     * @return The time in milliseconds.
+     */
+    double getLastElapsedMillis();
+
+    /**
+     * Gets the number of positions visited per second for the last move.
+     *
+     * @return The search speed.
+     */
+    double getLastNodesPerSecond();
+
+    /**
+     * Gets the number of moves looked up in the search cache since it was
+     * opened.
+     *
+     * @return The number of lookups, {@code 0} without search cache.
+     */
+    long getSearchCacheLookups();
+
+    /**
+     * Gets the number of moves found in the search cache since it was
+     * opened.
+     *
+     * @return The number of hits, {@code 0} without search cache.
+     */
+    long getSearchCacheHits();
+
+    /**
+     * Gets the share of lookups in the search cache which found a move.
+     *
+     * @return The hit rate between {@code 0} and {@code 1}, {@code 0}
+     * without search cache or if nothing was looked up yet.
+     */
+    double getSearchCacheHitRate();
+}
@@ -0,0 +1,193 @@
+package de.uni_passau.fim.prog2.kalah.model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded hash table of already scored positions. A game and all the boards
+ * derived from it share one table, so positions which are reached again by
+ * extra turns or by different orders of the same moves are only searched
+ * once.
+ * <p>
+ * The table is organised in buckets of two entries. The first entry of a
+ * bucket keeps the result with the most remaining depth, unless it stems from
+ * an earlier search. The second entry is always replaced. Every entry is
+ * stored as three longs: the key combined with the data by exclusive or, the
+ * score and the remaining depth together with the bound type and the
+ * {@link #HORIZON} flag.
+ * <p>
+ * The table is shared by all threads searching a position without any
+ * locking. Each long is read and written atomically, and an entry whose parts
+ * do not belong together, because several threads wrote to it at the same
+ * time, fails the check against the key and is therefore never mistaken for
+ * a hit.
+ */
+class TranspositionTable {
+
+    /**
+     * The size of the table in megabytes unless configured otherwise.
+     */
+    static final int DEFAULT_SIZE_MB = 16;
+
+    /**
+     * No entry was found for the position.
+     */
+    static final int MISS = 0;
+
+    /**
+     * The stored score is the exact score of the position.
+     */
+    static final int EXACT = 1;
+
+    /**
+     * The stored score is a lower bound of the score of the position.
+     */
+    static final int LOWER_BOUND = 2;
+
+    /**
+     * The stored score is an upper bound of the score of the position.
+     */
+    static final int UPPER_BOUND = 3;
+
+    /**
+     * Flag combined with the type of a stored score if the search below the
+     * position was cut off by the depth limit somewhere. A score without
+     * this flag does not change with a deeper search.
+     */
+    static final int HORIZON = 4;
+
+    /**
+     * Selects the type of a stored score without the {@link #HORIZON} flag.
+     */
+    static final int BOUND = 3;
+
+    private static final int LONGS_PER_ENTRY = 3;
+    private static final int ENTRIES_PER_BUCKET = 2;
+    private static final int LONGS_PER_BUCKET
+            = LONGS_PER_ENTRY * ENTRIES_PER_BUCKET;
+
+    private final int buckets;
+    private volatile AtomicLongArray table;
+    private volatile int generation;
+
+    /**
+     * Creates a table which may use up to the given amount of memory. The
+     * memory itself is only allocated on first use.
+     *
+     * @param megabytes The maximum size of the table in megabytes, at least
+     *                  1.
+     */
+    TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException(
+                    "Table size must be at least 1 MB.");
+        }
+        long longs = (long) megabytes * 1024 * 1024 / Long.BYTES;
+        this.buckets = Integer.highestOneBit(
+                (int) Long.min(longs / LONGS_PER_BUCKET,
+                        Integer.MAX_VALUE / LONGS_PER_BUCKET));
+    }
+
+    /**
+     * Marks the start of a new search. Entries of earlier searches stay
+     * valid, but are replaced in favour of the new search.
+     */
+    synchronized void newSearch() {
+        allocate();
+        generation = (generation + 1) & 0xff;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key   The hash of the position including all search parameters
+     *              it was scored with.
+     * @param score An array whose first element receives the stored score
+     *              in case of a hit.
+     * @return The type of the stored score, one of {@link #EXACT},
+     * {@link #LOWER_BOUND} and {@link #UPPER_BOUND} combined with
+     * {@link #HORIZON} if it was stored so, or {@link #MISS} if the table has
+     * no entry for this position.
+     */
+    int probe(long key, double[] score) {
+        AtomicLongArray entries = table;
+        if (entries == null) {
+            return MISS;
+        }
+        int bucket = bucket(key);
+        for (int i = 0; i < LONGS_PER_BUCKET; i += LONGS_PER_ENTRY) {
+            int entry = bucket + i;
+            long check = entries.getAcquire(entry);
+            long bits = entries.getAcquire(entry + 1);
+            long meta = entries.getAcquire(entry + 2);
+            if ((check ^ bits ^ meta) == key && meta != 0) {
+                score[0] = Double.longBitsToDouble(bits);
+                return (int) (meta >>> 8) & 0xff;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores the score of a position.
+     *
+     * @param key       The hash of the position including all search
+     *                  parameters it was scored with.
+     * @param remaining The depth of the search below the position.
+     * @param bound     The type of the score, one of {@link #EXACT},
+     *                  {@link #LOWER_BOUND} and {@link #UPPER_BOUND},
+     *                  combined with {@link #HORIZON} if the search below
+     *                  the position reached the depth limit.
+     * @param score     The score of the position.
+     */
+    void store(long key, int remaining, int bound, double score) {
+        AtomicLongArray entries = table;
+        if (entries == null) {
+            entries = allocate();
+        }
+        int bucket = bucket(key);
+        int current = generation;
+        long meta = (long) current << 16 | (long) bound << 8
+                | Integer.min(remaining, 0xff);
+        long first = entries.getAcquire(bucket + 2);
+        long firstKey = entries.getAcquire(bucket)
+                ^ entries.getAcquire(bucket + 1) ^ first;
+        int entry;
+        if (first == 0
+                || (first >>> 16) != current
+                || (int) (first & 0xff) <= remaining
+                || firstKey == key) {
+            entry = bucket;
+        } else {
+            entry = bucket + LONGS_PER_ENTRY;
+        }
+        long bits = Double.doubleToRawLongBits(score);
+        entries.setRelease(entry, key ^ bits ^ meta);
+        entries.setRelease(entry + 1, bits);
+        entries.setRelease(entry + 2, meta);
+    }
+
+    /**
+     * Forgets all entries but keeps the memory of the table. Must not be
+     * called while the table is searched.
+     */
+    synchronized void clear() {
+        AtomicLongArray entries = table;
+        if (entries != null) {
+            for (int i = 0; i < entries.length(); i++) {
+                entries.setPlain(i, 0);
+            }
+        }
+        generation = 0;
+    }
+
+    private synchronized AtomicLongArray allocate() {
+        if (table == null) {
+            table = new AtomicLongArray(buckets * LONGS_PER_BUCKET);
+        }
+        return table;
+    }
+
+    private int bucket(long key) {
+        return (int) (key & (buckets - 1)) * LONGS_PER_BUCKET;
+    }
+}
@@ -0,0 +1,90 @@
+package de.uni_passau.fim.prog2.kalah.model;
+
+/**
+ * Zobrist keys for Kalah positions. A position is hashed by combining one
+ * pseudo random key per pit and seed count with exclusive or, which allows
+ * updating the hash incrementally whenever the content of a single pit
+ * changes.
+ * <p>
+ * The keys are derived from a fixed mixing function instead of a random
+ * generator, so they are the same in every run of the program and do not
+ * depend on the size of the board or the number of seeds.
+ */
+final class Zobrist {
+
+    private static final long PIT_SALT = 0x9e3779b97f4a7c15L;
+    private static final long PLAYER_SALT = 0xd1b54a32d192ed03L;
+    private static final long PLY_SALT = 0x8cb92ba72f3d8dd7L;
+    private static final long LEVEL_SALT = 0xa0761d6478bd642fL;
+    private static final long GAME_SALT = 0xe7037ed1a0b428dbL;
+
+    private Zobrist() throws InstantiationException {
+        throw new InstantiationException("Zobrist should not be constructed.");
+    }
+
+    /**
+     * Gets the key of a pit holding the given number of seeds.
+     *
+     * @param pit   The number of the pit.
+     * @param seeds The number of seeds inside the pit.
+     * @return The key of the pit content.
+     */
+    static long pit(int pit, int seeds) {
+        return mix(PIT_SALT ^ ((long) pit << 32 | seeds));
+    }
+
+    /**
+     * Gets the key of the player who moves next.
+     *
+     * @param player The player to move.
+     * @return The key of the player.
+     */
+    static long player(Player player) {
+        return mix(PLAYER_SALT + player.ordinal());
+    }
+
+    /**
+     * Gets the key of the depth of a node inside the search tree together
+     * with the depth at which the search evaluates its leaves.
+     *
+     * @param ply   The depth of the node.
+     * @param level The depth of the leaves.
+     * @return The key of the depth.
+     */
+    static long depth(int ply, int level) {
+        return mix(PLY_SALT + ply) ^ mix(LEVEL_SALT + level);
+    }
+
+    /**
+     * Gets the key of the rules a position is played and evaluated with.
+     *
+     * @param pitsPerPlayer The number of pits per player.
+     * @param seedsPerPit   The initial number of seeds per pit.
+     * @return The key of the game.
+     */
+    static long game(int pitsPerPlayer, int seedsPerPit) {
+        return mix(GAME_SALT ^ ((long) pitsPerPlayer << 32 | seedsPerPit));
+    }
+
+    /**
+     * Calculates the hash of the given pits, where index {@code i} holds the
+     * seeds of pit {@code i + 1}.
+     *
+     * @param pits The content of all pits and stores.
+     * @return The combined keys of all pits.
+     */
+    static long hash(int[] pits) {
+        long hash = 0L;
+        for (int i = 0; i < pits.length; i++) {
+            hash ^= pit(i + 1, pits[i]);
+        }
+        return hash;
+    }
+
+    private static long mix(long z) {
+        // finalizer of the SplitMix64 generator
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,253 @@
+package de.uni_passau.fim.prog2.kalah.server;
+
+import de.uni_passau.fim.prog2.kalah.model.Board;
+import de.uni_passau.fim.prog2.kalah.model.EndgameTable;
+import de.uni_passau.fim.prog2.kalah.model.IllegalMoveException;
+import de.uni_passau.fim.prog2.kalah.model.Kalah;
+import de.uni_passau.fim.prog2.kalah.model.Model;
+import de.uni_passau.fim.prog2.kalah.model.Player;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A session of the {@link GameServer}, which plays one game with a client
+ * at a time. The client sends one command per line:
+ * <ul>
+ *     <li>{@code new <p> <s> [level [human|machine]]} starts a game with
+ *     {@code p} pits per player and {@code s} seeds per pit, by default at
+ *     level 3 with the human opening.</li>
+ *     <li>{@code move <pit>} moves the seeds of one of the human's
+ *     pits.</li>
+ *     <li>{@code undo} takes back the last move of the human together with
+ *     the machine's answers.</li>
+ *     <li>{@code state} reports the position.</li>
+ *     <li>{@code quit} ends the session.</li>
+ * </ul>
+ * The server answers every command except {@code quit} with zero or more
+ * lines {@code machine <source> <target>}, one per move of the machine, and
+ * a final line {@code state next=<player> winner=<player> level=<level>
+ * seeds=<a>,<b>,...}, where the seeds are listed pit by pit, or with a
+ * single line {@code error <message>} if the command failed. The players
+ * are {@code human}, {@code machine}, {@code nobody} for a tie and
+ * {@code none} before the game is over. {@code quit} is answered by
+ * {@code bye}.
+ */
+final class Connection implements Runnable {
+
+    private static final int DEFAULT_LEVEL = 3;
+
+    private final Socket socket;
+    private final ExecutorService searchPool;
+    private final Kalah tableOwner;
+    private final EndgameTable endgameTable;
+    private final Model model = new Model((Board) null);
+
+    /**
+     * The boards before each move of the human, the latest last.
+     */
+    private final Deque<Board> history = new ArrayDeque<>();
+    private int level = DEFAULT_LEVEL;
+
+    /**
+     * Creates a session for a client.
+     *
+     * @param socket     The connection to the client.
+     * @param searchPool The pool on which the machine searches its moves.
+     * @param tableOwner The board whose transposition table and endgame
+     *                   table all games of the session use.
+     */
+    Connection(Socket socket, ExecutorService searchPool, Kalah tableOwner) {
+        this.socket = socket;
+        this.searchPool = searchPool;
+        this.tableOwner = tableOwner;
+        this.endgameTable = tableOwner.getEndgameTable();
+    }
+
+    @Override
+    public void run() {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(
+                     socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(),
+                             StandardCharsets.UTF_8)))) {
+            String line;
+            while ((line = in.readLine()) != null && execute(line, out)) {
+                out.flush();
+            }
+            out.flush();
+        } catch (IOException e) {
+            // the client went away, which ends the session
+        } catch (InterruptedException e) {
+            // the server shuts down
+        }
+    }
+
+    /**
+     * Executes a single command and writes its answer.
+     *
+     * @return {@code false} if the session was quit, {@code true} otherwise.
+     */
+    private boolean execute(String line, PrintWriter out)
+            throws InterruptedException {
+        String[] tokens = line.trim().split("\\s+");
+        try {
+            switch (tokens[0].toLowerCase(Locale.ROOT)) {
+                case "new" -> newGame(tokens, out);
+                case "move" -> move(tokens, out);
+                case "undo" -> undo();
+                case "state" -> requireBoard();
+                case "quit" -> {
+                    out.println("bye");
+                    return false;
+                }
+                default -> throw new IllegalArgumentException(
+                        "Not a valid command.");
+            }
+            state(out);
+        } catch (IllegalMoveException | IllegalArgumentException
+                 | IllegalStateException e) {
+            out.println("error " + e.getMessage());
+        }
+        return true;
+    }
+
+    private void newGame(String[] tokens, PrintWriter out)
+            throws InterruptedException {
+        if (tokens.length < 3) {
+            throw new IllegalArgumentException(
+                    "Not enough arguments supplied!");
+        }
+        int pitsPerPlayer = parse(tokens[1]);
+        int seedsPerPit = parse(tokens[2]);
+        int newLevel = tokens.length > 3 ? parse(tokens[3]) : DEFAULT_LEVEL;
+        Player opening = Player.HUMAN;
+        if (tokens.length > 4) {
+            opening = switch (tokens[4].toLowerCase(Locale.ROOT)) {
+                case "human" -> Player.HUMAN;
+                case "machine" -> Player.COMPUTER;
+                default -> throw new IllegalArgumentException(
+                        "The opening player must be human or machine.");
+            };
+        }
+        if (pitsPerPlayer < 1 || seedsPerPit < 1 || newLevel < 1) {
+            throw new IllegalArgumentException(
+                    "Pits, seeds and level must be greater than 0.");
+        }
+        Kalah game = new Kalah(pitsPerPlayer, seedsPerPit, opening, newLevel);
+        // the session's thread only waits, the search pool does the work
+        game.setSearchPool(null);
+        game.shareTranspositionTable(tableOwner);
+        game.setEndgameTable(endgameTable);
+        level = newLevel;
+        history.clear();
+        model.setBoard(game);
+        machineMoves(out);
+    }
+
+    private void move(String[] tokens, PrintWriter out)
+            throws InterruptedException {
+        if (tokens.length < 2) {
+            throw new IllegalArgumentException(
+                    "Not enough arguments supplied!");
+        }
+        int pit = parse(tokens[1]);
+        Board board = requireBoard();
+        Board next = board.move(pit);
+        history.push(board);
+        model.setBoard(next);
+        machineMoves(out);
+    }
+
+    private void undo() {
+        requireBoard();
+        if (history.isEmpty()) {
+            throw new IllegalStateException("There is no move to undo.");
+        }
+        model.setBoard(history.pop());
+    }
+
+    /**
+     * Lets the machine move on the search pool as long as it is its turn.
+     * The session's thread waits for each search, and cancels it if the
+     * session is interrupted.
+     */
+    private void machineMoves(PrintWriter out) throws InterruptedException {
+        Board board = model.getBoard();
+        while (!board.isGameOver() && board.next() == Player.COMPUTER) {
+            Board position = board;
+            Future<Board> search = searchPool.submit(position::machineMove);
+            try {
+                board = search.get();
+            } catch (InterruptedException e) {
+                search.cancel(true);
+                throw e;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+            model.setBoard(board);
+            model.getSearchMonitor().record(board.getSearchStatistics());
+            out.println("machine " + board.sourcePitOfLastMove() + " "
+                    + board.targetPitOfLastMove());
+        }
+    }
+
+    private void state(PrintWriter out) {
+        Board board = requireBoard();
+        StringBuilder state = new StringBuilder("state next=");
+        state.append(board.isGameOver() ? "none" : name(board.next()));
+        state.append(" winner=");
+        state.append(board.isGameOver() ? name(board.getWinner()) : "none");
+        state.append(" level=").append(level).append(" seeds=");
+        int pits = 2 * board.getPitsPerPlayer() + 2;
+        for (int pit = 1; pit <= pits; pit++) {
+            if (pit > 1) {
+                state.append(',');
+            }
+            state.append(board.getSeeds(pit));
+        }
+        out.println(state);
+    }
+
+    private Board requireBoard() {
+        Board board = model.getBoard();
+        if (board == null) {
+            throw new IllegalStateException(
+                    "There is currently no board present.");
+        }
+        return board;
+    }
+
+    private static String name(Player player) {
+        return switch (player) {
+            case HUMAN -> "human";
+            case COMPUTER -> "machine";
+            default -> "nobody";
+        };
+    }
+
+    private static int parse(String token) {
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    "Arguments must be integers.");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package de.uni_passau.fim.prog2.kalah.server;
+
+import de.uni_passau.fim.prog2.kalah.Main;
+import de.uni_passau.fim.prog2.kalah.model.EndgameTable;
+import de.uni_passau.fim.prog2.kalah.model.Kalah;
+import de.uni_passau.fim.prog2.kalah.model.Player;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Hosts many games in one process. Every connection to the server is a
+ * session with a game of its own, played through a line-based protocol
+ * described in {@link Connection}. The server only listens on the loopback
+ * interface.
+ * <p>
+ * Connections are handled on virtual threads where the Java runtime
+ * provides them, and on platform threads otherwise. A waiting session thus
+ * costs little more than its board. The machine's searches run on a pool
+ * with a fixed number of threads, so a burst of moves queues up instead of
+ * overloading the processors, and all games share one transposition table
+ * of bounded size.
+ * <p>
+ * Usage: {@code GameServer [port [searchThreads [tableSizeMB]]]}, which
+ * defaults to port {@value #DEFAULT_PORT}, one search thread per processor
+ * and a table of {@value #DEFAULT_TABLE_SIZE_MB} MB. Like the graphical user
+ * interface, the server consults the endgame table named by the system
+ * property {@value Main#ENDGAME_TABLE_PROPERTY}.
+ */
+public final class GameServer {
+
+    /**
+     * The port the server listens on unless configured otherwise.
+     */
+    public static final int DEFAULT_PORT = 4242;
+
+    /**
+     * The size of the shared transposition table in megabytes unless
+     * configured otherwise.
+     */
+    public static final int DEFAULT_TABLE_SIZE_MB = 64;
+
+    private static final int BACKLOG = 128;
+
+    private GameServer() throws InstantiationException {
+        throw new InstantiationException(
+                "GameServer should not be constructed.");
+    }
+
+    /**
+     * Entry point of the server. It runs until the process is stopped.
+     *
+     * @param args The port, the number of search threads and the size of
+     *             the transposition table, all optional.
+     * @throws IOException If the port cannot be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int searchThreads = args.length > 1
+                ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        int tableSize = args.length > 2
+                ? Integer.parseInt(args[2])
+                : DEFAULT_TABLE_SIZE_MB;
+        Kalah tableOwner = new Kalah(6, 3, Player.HUMAN, 1);
+        tableOwner.setTranspositionTableSize(tableSize);
+        String tableFile = System.getProperty(Main.ENDGAME_TABLE_PROPERTY);
+        if (tableFile != null) {
+            try {
+                tableOwner.setEndgameTable(
+                        EndgameTable.load(Path.of(tableFile)));
+            } catch (IOException e) {
+                System.err.println("Endgame table not available: "
+                        + e.getMessage());
+            }
+        }
+        ExecutorService searchPool
+                = Executors.newFixedThreadPool(searchThreads);
+        ExecutorService connections = connectionExecutor();
+        try (ServerSocket server = new ServerSocket(port, BACKLOG,
+                InetAddress.getLoopbackAddress())) {
+            System.out.println("Listening on "
+                    + server.getLocalSocketAddress() + " with "
+                    + searchThreads + " search thread(s)");
+            while (!server.isClosed()) {
+                Socket socket = server.accept();
+                connections.execute(new Connection(socket, searchPool,
+                        tableOwner));
+            }
+        } finally {
+            connections.shutdownNow();
+            searchPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates an executor which starts a virtual thread per task if the
+     * runtime supports them. The lookup is reflective, so the server still
+     * runs on runtimes without virtual threads.
+     */
+    private static ExecutorService connectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // also thrown where virtual threads are a disabled preview
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
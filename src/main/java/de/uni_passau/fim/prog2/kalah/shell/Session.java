@@ -0,0 +1,264 @@
+package de.uni_passau.fim.prog2.kalah.shell;
+
+import de.uni_passau.fim.prog2.kalah.model.Board;
+import de.uni_passau.fim.prog2.kalah.model.EndgameTable;
+import de.uni_passau.fim.prog2.kalah.model.IllegalMoveException;
+import de.uni_passau.fim.prog2.kalah.model.Kalah;
+import de.uni_passau.fim.prog2.kalah.model.Player;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * A game played through text commands, one command per line. All output,
+ * including error messages, goes to a single writer, so a session can run
+ * anywhere a stream of text is available.
+ */
+final class Session {
+
+    private static final int DEFAULT_LEVEL = 3;
+
+    /**
+     * The size of the transposition table of a game in batch mode. Many
+     * short games are played there, so a small table which is quickly
+     * allocated pays off. The chosen moves do not depend on it.
+     */
+    private static final int BATCH_TABLE_SIZE_MB = 1;
+
+    private static final String HELP = """
+            Mancala/Kalah - all commands:
+            NEW <p> <s>:    Creates a new game with <p> pits per player and <s>
+                            seeds per pit. The difficulty and the opening player
+                            will be copied from the previous game, if possible.
+                            If this is the first game the difficulty will be set
+                            to 3 and the human player will begin.
+
+            LEVEL <i>:      Sets the difficulty from 1 to 7. Changes will be
+                            immediately reflected in the bots behaviour.
+
+            MOVE <p>:       Lets the player choose a pit from which to take the
+                            seeds for his move. If the game doesn't end after
+                            the players turn, the computer will make its move
+                            immediately after.
+
+            SWITCH:         Restarts the game and changes the opening player.
+
+            PRINT:          Displays the current state of the board in the
+                            console. The first line are the computers pits, the
+                            second line shows the players pits.
+
+            HELP:           Prints a helping dialog for the game, explaining all
+                            available commands.
+
+            QUIT:           Exits the game and stops the program.
+
+            """;
+
+    private final PrintWriter out;
+    private final boolean batch;
+    private final EndgameTable endgameTable;
+    private Board board;
+    private int level = DEFAULT_LEVEL;
+
+    /**
+     * Creates a session without a game.
+     *
+     * @param out          The writer receiving all output.
+     * @param batch        Whether the session is one of many in batch mode.
+     *                     The machine then searches on the calling thread
+     *                     only with a small transposition table.
+     * @param endgameTable The table of exact endgame results the machine
+     *                     consults, or {@code null} to always search.
+     */
+    Session(PrintWriter out, boolean batch, EndgameTable endgameTable) {
+        this.out = out;
+        this.batch = batch;
+        this.endgameTable = endgameTable;
+    }
+
+    /**
+     * Executes a single command.
+     *
+     * @param line The command with its arguments.
+     * @return {@code false} if the session was quit, {@code true} otherwise.
+     * @throws InterruptedException If the machine's search was interrupted.
+     */
+    boolean execute(String line) throws InterruptedException {
+        String[] tokens = line.trim().split("\\s+");
+        switch (tokens[0].toLowerCase(Locale.ROOT)) {
+            case "new" -> newGame(tokens);
+            case "level" -> level(tokens);
+            case "move" -> move(tokens);
+            case "switch" -> switchGame();
+            case "print" -> print();
+            case "help" -> out.print(HELP);
+            case "quit" -> {
+                return false;
+            }
+            default -> error("Not a valid command.");
+        }
+        return true;
+    }
+
+    private void newGame(String[] tokens) throws InterruptedException {
+        if (tokens.length < 3) {
+            error("Not enough arguments supplied!");
+            return;
+        }
+        int pitsPerPlayer;
+        int seedsPerPit;
+        try {
+            pitsPerPlayer = Integer.parseInt(tokens[1]);
+            seedsPerPit = Integer.parseInt(tokens[2]);
+        } catch (NumberFormatException e) {
+            error("First and second argument need to be an integer.");
+            return;
+        }
+        if (pitsPerPlayer < 1 || seedsPerPit < 1) {
+            error("Pits and seeds must be greater than 0.");
+            return;
+        }
+        Player opening = board == null ? Player.HUMAN
+                : board.getOpeningPlayer();
+        start(pitsPerPlayer, seedsPerPit, opening);
+    }
+
+    private void switchGame() throws InterruptedException {
+        if (board == null) {
+            error("There is currently no board present.");
+            return;
+        }
+        start(board.getPitsPerPlayer(), board.getSeedsPerPit(),
+                board.getOpeningPlayer().getOpposite());
+    }
+
+    private void start(int pitsPerPlayer, int seedsPerPit, Player opening)
+            throws InterruptedException {
+        Kalah game = new Kalah(pitsPerPlayer, seedsPerPit, opening, level);
+        game.setEndgameTable(endgameTable);
+        if (batch) {
+            game.setSearchPool(null);
+            game.setTranspositionTableSize(BATCH_TABLE_SIZE_MB);
+        }
+        board = game;
+        machineMoves();
+        printResultIfOver();
+    }
+
+    private void level(String[] tokens) {
+        if (tokens.length < 2) {
+            error("Not enough arguments supplied!");
+            return;
+        }
+        int newLevel;
+        try {
+            newLevel = Integer.parseInt(tokens[1]);
+        } catch (NumberFormatException e) {
+            error("Argument must be an integer.");
+            return;
+        }
+        if (newLevel < 1) {
+            error("Level must be greater than 0.");
+        } else if (board == null) {
+            error("There is currently no board present.");
+        } else {
+            level = newLevel;
+            board.setLevel(newLevel);
+        }
+    }
+
+    private void move(String[] tokens) throws InterruptedException {
+        if (tokens.length < 2) {
+            error("Not enough arguments supplied!");
+            return;
+        }
+        int pit;
+        try {
+            pit = Integer.parseInt(tokens[1]);
+        } catch (NumberFormatException e) {
+            error("Argument must be an integer.");
+            return;
+        }
+        if (board == null) {
+            error("There is currently no board present.");
+            return;
+        }
+        try {
+            board = board.move(pit);
+            if (!board.isGameOver() && board.next() == Player.HUMAN) {
+                out.println("Machine must miss a turn.");
+            }
+            machineMoves();
+        } catch (IllegalMoveException | IllegalArgumentException e) {
+            error(e.getMessage());
+        }
+        printResultIfOver();
+    }
+
+    private void machineMoves() throws InterruptedException {
+        while (!board.isGameOver() && board.next() == Player.COMPUTER) {
+            board = board.machineMove();
+            out.println("Machine chose pit " + board.sourcePitOfLastMove()
+                    + " with seeds reaching pit "
+                    + board.targetPitOfLastMove() + ".");
+            if (!board.isGameOver() && board.next() == Player.COMPUTER) {
+                out.println("You must miss a turn.");
+            }
+        }
+    }
+
+    private void printResultIfOver() {
+        if (!board.isGameOver()) {
+            return;
+        }
+        int human = board.getSeedsOfPlayer(Player.HUMAN);
+        int computer = board.getSeedsOfPlayer(Player.COMPUTER);
+        switch (board.getWinner()) {
+            case HUMAN -> out.println("Congratulations! You won with "
+                    + human + " seeds versus " + computer
+                    + " seeds of the machine.");
+            case COMPUTER -> out.println("Sorry! Machine wins with "
+                    + computer + " seeds versus your " + human + ".");
+            default -> out.println("Nobody wins. Tie with " + human
+                    + " for each player.");
+        }
+    }
+
+    /**
+     * Prints the machine's store and pits from right to left in the first
+     * line, and the human's pits and store from left to right in the second
+     * line, so that opposite pits are above each other.
+     */
+    private void print() {
+        if (board == null) {
+            error("There is currently no board present.");
+            return;
+        }
+        int pitsPerPlayer = board.getPitsPerPlayer();
+        int computerStore = 2 * pitsPerPlayer + 2;
+        int width = 1;
+        for (int pit = 1; pit <= computerStore; pit++) {
+            width = Integer.max(width,
+                    String.valueOf(board.getSeeds(pit)).length());
+        }
+        String cell = "%" + width + "d";
+        StringBuilder machine = new StringBuilder();
+        for (int pit = computerStore; pit > pitsPerPlayer + 1; pit--) {
+            if (pit != computerStore) {
+                machine.append(' ');
+            }
+            machine.append(String.format(cell, board.getSeeds(pit)));
+        }
+        StringBuilder human = new StringBuilder(" ".repeat(width));
+        for (int pit = 1; pit <= pitsPerPlayer + 1; pit++) {
+            human.append(' ').append(String.format(cell,
+                    board.getSeeds(pit)));
+        }
+        out.println(machine);
+        out.println(human);
+    }
+
+    private void error(String message) {
+        out.println("Error! " + message);
+    }
+}
@@ -0,0 +1,249 @@
+package de.uni_passau.fim.prog2.kalah.shell;
+
+import de.uni_passau.fim.prog2.kalah.Main;
+import de.uni_passau.fim.prog2.kalah.model.EndgameTable;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Entry point of the game without graphical user interface. It only uses
+ * the model, so it runs where no display is available.
+ * <p>
+ * Usage: {@code Shell} plays interactively on the console. {@code Shell
+ * --batch [--threads n] [script...]} runs each script, a file of commands,
+ * in a session of its own and writes the output of all scripts in the given
+ * order. The script {@code -} or no script at all reads the commands from
+ * standard input. Without a prompt and with buffered output, the batch mode
+ * suits pipelines and automated tests. Scripts run on {@code n} threads,
+ * the number of processors by default. A script which cannot be read is
+ * reported by a line {@code error <script>: <message>} in its place of the
+ * output, the other scripts run regardless, and the shell exits with status
+ * 1 at the end.
+ * <p>
+ * Like the graphical user interface, the shell consults the endgame table
+ * named by the system property {@value Main#ENDGAME_TABLE_PROPERTY}.
+ */
+public final class Shell {
+
+    private static final String PROMPT = "kalah> ";
+    private static final String STDIN = "-";
+    private static final int OUTPUT_BUFFER = 1 << 16;
+
+    /**
+     * The number of scripts which may be finished and waiting to be written
+     * per thread, which bounds the memory held by the output.
+     */
+    private static final int PENDING_PER_THREAD = 4;
+
+    private Shell() throws InstantiationException {
+        throw new InstantiationException("Shell should not be constructed.");
+    }
+
+    /**
+     * Entry point of the shell.
+     *
+     * @param args {@code --batch}, optionally followed by
+     *             {@code --threads n} and the scripts to run, or nothing
+     *             for an interactive game.
+     * @throws IOException          If the input cannot be read.
+     * @throws InterruptedException If the shell was interrupted.
+     */
+    public static void main(String[] args)
+            throws IOException, InterruptedException {
+        PrintWriter out = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+                OUTPUT_BUFFER));
+        BufferedReader in = new BufferedReader(
+                new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        EndgameTable table = null;
+        String tableFile = System.getProperty(Main.ENDGAME_TABLE_PROPERTY);
+        if (tableFile != null) {
+            try {
+                table = EndgameTable.load(Path.of(tableFile));
+            } catch (IOException e) {
+                System.err.println("Endgame table not available: "
+                        + e.getMessage());
+            }
+        }
+        try {
+            if (args.length > 0 && args[0].equals("--batch")) {
+                if (!batch(args, in, out, table)) {
+                    out.flush();
+                    System.exit(1);
+                }
+            } else if (args.length == 0) {
+                interactive(in, out, table);
+            } else {
+                System.err.println("Usage: Shell [--batch [--threads n] "
+                        + "[script...]]");
+                System.exit(2);
+            }
+        } finally {
+            out.flush();
+        }
+    }
+
+    private static void interactive(BufferedReader in, PrintWriter out,
+                                    EndgameTable table)
+            throws IOException, InterruptedException {
+        Session session = new Session(out, false, table);
+        String line;
+        do {
+            out.print(PROMPT);
+            out.flush();
+            line = in.readLine();
+        } while (line != null && session.execute(line));
+    }
+
+    /**
+     * Runs the scripts given on the command line.
+     *
+     * @return {@code true} if and only if all scripts could be read.
+     */
+    private static boolean batch(String[] args, BufferedReader in,
+                                 PrintWriter out, EndgameTable table)
+            throws InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<String> scripts = new ArrayList<>();
+        for (int k = 1; k < args.length; k++) {
+            if (args[k].equals("--threads") && k + 1 < args.length) {
+                threads = Integer.max(1, Integer.parseInt(args[++k]));
+            } else {
+                scripts.add(args[k]);
+            }
+        }
+        if (scripts.isEmpty()) {
+            scripts.add(STDIN);
+        }
+        if (threads == 1 || scripts.size() == 1) {
+            boolean read = true;
+            for (String script : scripts) {
+                header(scripts, script, out);
+                read &= run(script, in, out, table);
+            }
+            return read;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Deque<Future<String>> pending = new ArrayDeque<>();
+        AtomicBoolean read = new AtomicBoolean(true);
+        int next = 0;
+        try {
+            for (String script : scripts) {
+                pending.add(executor.submit(() -> {
+                    StringWriter buffer = new StringWriter();
+                    try (PrintWriter output = new PrintWriter(buffer)) {
+                        if (!run(script, in, output, table)) {
+                            read.set(false);
+                        }
+                    }
+                    return buffer.toString();
+                }));
+                if (pending.size() >= threads * PENDING_PER_THREAD) {
+                    header(scripts, scripts.get(next++), out);
+                    out.print(result(pending.remove()));
+                }
+            }
+            while (!pending.isEmpty()) {
+                header(scripts, scripts.get(next++), out);
+                out.print(result(pending.remove()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return read.get();
+    }
+
+    /**
+     * Executes the commands of a script until it ends or quits. If the
+     * script cannot be read, the error is written to the output of the
+     * script.
+     *
+     * @return {@code true} if and only if the script could be read.
+     */
+    private static boolean run(String script, BufferedReader in,
+                               PrintWriter out, EndgameTable table)
+            throws InterruptedException {
+        Session session = new Session(out, true, table);
+        try {
+            if (script.equals(STDIN)) {
+                // standard input is read by one script at a time
+                synchronized (in) {
+                    execute(session, in);
+                }
+            } else {
+                try (BufferedReader reader = Files.newBufferedReader(
+                        Path.of(script), StandardCharsets.UTF_8)) {
+                    execute(session, reader);
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            out.println("error " + script + ": " + describe(e));
+            return false;
+        }
+    }
+
+    private static void execute(Session session, BufferedReader reader)
+            throws IOException, InterruptedException {
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && session.execute(line));
+    }
+
+    /**
+     * Describes why a script cannot be read. The exceptions for missing and
+     * inaccessible files only carry the name of the file.
+     */
+    private static String describe(IOException e) {
+        if (e instanceof NoSuchFileException) {
+            return "No such file.";
+        } else if (e instanceof AccessDeniedException) {
+            return "Permission denied.";
+        } else {
+            return e.getMessage();
+        }
+    }
+
+    private static void header(List<String> scripts, String script,
+                               PrintWriter out) {
+        if (scripts.size() > 1) {
+            out.println("==> " + script + " <==");
+        }
+    }
+
+    private static String result(Future<String> script)
+            throws InterruptedException {
+        try {
+            return script.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof InterruptedException) {
+                throw new InterruptedException();
+            } else if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package de.uni_passau.fim.prog2.kalah.tools;
+
+import de.uni_passau.fim.prog2.kalah.model.Board;
+import de.uni_passau.fim.prog2.kalah.model.EndgameTable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes the endgame table of one number of pits per player, which the
+ * machine can then use through {@code Kalah.setEndgameTable}.
+ * <p>
+ * Usage: {@code EndgameTableBuilder [pitsPerPlayer [maxSeeds [file]]]},
+ * which defaults to the classical number of pits, 12 seeds and a file named
+ * after both in the working directory.
+ */
+public final class EndgameTableBuilder {
+
+    private static final int DEFAULT_MAX_SEEDS = 12;
+
+    /**
+     * The stack size of the solving thread. Solving follows every line of
+     * play until the end of the game.
+     */
+    private static final long STACK_SIZE = 256L * 1024 * 1024;
+
+    private EndgameTableBuilder() throws InstantiationException {
+        throw new InstantiationException(
+                "EndgameTableBuilder should not be constructed.");
+    }
+
+    /**
+     * Entry point of the builder.
+     *
+     * @param args The number of pits per player, the most seeds in the pits
+     *             and the file to write, all optional.
+     * @throws InterruptedException If the builder was interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int pitsPerPlayer = args.length > 0
+                ? Integer.parseInt(args[0])
+                : Board.DEFAULT_PITS_PER_PLAYER;
+        int maxSeeds = args.length > 1
+                ? Integer.parseInt(args[1])
+                : DEFAULT_MAX_SEEDS;
+        Path file = Path.of(args.length > 2
+                ? args[2]
+                : "endgame-" + pitsPerPlayer + "-" + maxSeeds + ".tbl");
+        Thread builder = new Thread(null, () -> {
+            long start = System.nanoTime();
+            try {
+                long positions = EndgameTable.generate(pitsPerPlayer,
+                        maxSeeds, file);
+                System.out.printf("%d positions written to %s in %.1f s%n",
+                        positions, file, (System.nanoTime() - start) / 1e9);
+            } catch (IOException e) {
+                System.err.println("Cannot write " + file + ": "
+                        + e.getMessage());
+            }
+        }, "endgame-table", STACK_SIZE);
+        builder.start();
+        builder.join();
+    }
+}
@@ -0,0 +1,97 @@
+package de.uni_passau.fim.prog2.kalah.tools;
+
+import de.uni_passau.fim.prog2.kalah.model.Board;
+import de.uni_passau.fim.prog2.kalah.model.Kalah;
+
+import java.util.List;
+
+/**
+ * Reports how many positions the machine visits to choose its move with and
+ * without move ordering, on a fixed set of positions. The search runs on the
+ * calling thread with an empty transposition table, so the counts are
+ * reproducible. The report fails if the ordering changes any chosen move.
+ */
+public final class MoveOrderingReport {
+
+    private static final int POSITIONS = 6;
+    private static final int TABLE_SIZE_MB = 64;
+    private static final long RANDOM_SEED = 20230101L;
+
+    /**
+     * The reported configurations as pits per player, seeds per pit and
+     * level.
+     */
+    private static final int[][] CONFIGURATIONS = {
+            {Board.DEFAULT_PITS_PER_PLAYER, Board.DEFAULT_SEEDS_PER_PIT, 6},
+            {Board.DEFAULT_PITS_PER_PLAYER, Board.DEFAULT_SEEDS_PER_PIT, 11},
+            {Board.DEFAULT_PITS_PER_PLAYER, 6, 9},
+            {12, 20, 5},
+    };
+
+    private MoveOrderingReport() throws InstantiationException {
+        throw new InstantiationException(
+                "MoveOrderingReport should not be constructed.");
+    }
+
+    /**
+     * Entry point of the report.
+     *
+     * @param args Not used.
+     * @throws InterruptedException If the report was interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        long totalBefore = 0;
+        long totalAfter = 0;
+        for (int[] configuration : CONFIGURATIONS) {
+            List<Kalah> positions = Positions.random(configuration[0],
+                    configuration[1], configuration[2], POSITIONS,
+                    RANDOM_SEED);
+            System.out.printf("%dx%d, level %d%n", configuration[0],
+                    configuration[1], configuration[2]);
+            System.out.printf("%8s %14s %14s %8s%n", "position", "unordered",
+                    "ordered", "ratio");
+            for (int k = 0; k < positions.size(); k++) {
+                Kalah position = positions.get(k);
+                Result unordered = search(position, false);
+                Result ordered = search(position, true);
+                if (ordered.pit() != unordered.pit()) {
+                    throw new IllegalStateException("Ordering changed the "
+                            + "move in position " + k + ":"
+                            + System.lineSeparator() + position);
+                }
+                long before = unordered.nodes();
+                long after = ordered.nodes();
+                totalBefore += before;
+                totalAfter += after;
+                System.out.printf("%8d %14d %14d %8.3f%n", k, before, after,
+                        (double) after / before);
+            }
+            System.out.println();
+        }
+        System.out.printf("total %d -> %d positions (%.1f%% fewer)%n",
+                totalBefore, totalAfter,
+                100.0 * (totalBefore - totalAfter) / totalBefore);
+    }
+
+    /**
+     * Lets a copy of the position choose its move from scratch.
+     */
+    private static Result search(Kalah position, boolean ordering)
+            throws InterruptedException {
+        Kalah board = (Kalah) position.clone();
+        board.setTranspositionTableSize(TABLE_SIZE_MB);
+        board.setSearchPool(null);
+        board.setMoveOrdering(ordering);
+        int pit = board.rankMoves().get(0).pit();
+        return new Result(pit, board.getSearchedNodes());
+    }
+
+    /**
+     * The outcome of a search.
+     *
+     * @param pit   The chosen move.
+     * @param nodes The number of visited positions.
+     */
+    private record Result(int pit, long nodes) {
+    }
+}
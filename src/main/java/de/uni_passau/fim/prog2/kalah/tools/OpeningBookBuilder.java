@@ -0,0 +1,54 @@
+package de.uni_passau.fim.prog2.kalah.tools;
+
+import de.uni_passau.fim.prog2.kalah.model.OpeningBook;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes the opening book of the classical game, which the application loads
+ * as resource.
+ * <p>
+ * Usage: {@code OpeningBookBuilder [plies [maxLevel [file]]]}, which defaults
+ * to the book shipped in the resources of the model.
+ */
+public final class OpeningBookBuilder {
+
+    private static final int DEFAULT_PLIES = 5;
+    private static final int DEFAULT_MAX_LEVEL = 10;
+    private static final String DEFAULT_FILE
+            = "src/main/resources/de/uni_passau/fim/prog2/kalah/model/"
+            + OpeningBook.RESOURCE;
+
+    private OpeningBookBuilder() throws InstantiationException {
+        throw new InstantiationException(
+                "OpeningBookBuilder should not be constructed.");
+    }
+
+    /**
+     * Entry point of the builder.
+     *
+     * @param args The number of moves from the start, the highest level and
+     *             the file to write, all optional.
+     * @throws IOException          If the book cannot be written.
+     * @throws InterruptedException If the builder was interrupted.
+     */
+    public static void main(String[] args)
+            throws IOException, InterruptedException {
+        int plies = args.length > 0
+                ? Integer.parseInt(args[0])
+                : DEFAULT_PLIES;
+        int maxLevel = args.length > 1
+                ? Integer.parseInt(args[1])
+                : DEFAULT_MAX_LEVEL;
+        Path file = Path.of(args.length > 2 ? args[2] : DEFAULT_FILE);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        long start = System.nanoTime();
+        int positions = OpeningBook.generate(plies, maxLevel, file);
+        System.out.printf("%d positions written to %s in %.1f s%n",
+                positions, file, (System.nanoTime() - start) / 1e9);
+    }
+}
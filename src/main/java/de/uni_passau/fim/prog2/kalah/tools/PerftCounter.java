@@ -0,0 +1,69 @@
+package de.uni_passau.fim.prog2.kalah.tools;
+
+import de.uni_passau.fim.prog2.kalah.model.Kalah;
+import de.uni_passau.fim.prog2.kalah.model.Perft;
+import de.uni_passau.fim.prog2.kalah.model.Player;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Counts the positions reached after a number of moves from the start of a
+ * game in which the human opens, once by copying the board for every move
+ * and once by executing moves in place, and reports how many positions per
+ * second each of them reaches. The tool fails if the counts differ. The
+ * known counts of some games are checked by the tests.
+ * <p>
+ * Usage: {@code PerftCounter pitsPerPlayer seedsPerPit depth [threads]}.
+ */
+public final class PerftCounter {
+
+    private PerftCounter() throws InstantiationException {
+        throw new InstantiationException(
+                "PerftCounter should not be constructed.");
+    }
+
+    /**
+     * Entry point of the tool.
+     *
+     * @param args The number of pits per player, seeds per pit and moves,
+     *             and the number of threads, which defaults to one.
+     * @throws InterruptedException If the counting was interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 3) {
+            System.err.println("Usage: PerftCounter pitsPerPlayer "
+                    + "seedsPerPit depth [threads]");
+            System.exit(2);
+        }
+        int pitsPerPlayer = Integer.parseInt(args[0]);
+        int seedsPerPit = Integer.parseInt(args[1]);
+        int depth = Integer.parseInt(args[2]);
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            Kalah board = new Kalah(pitsPerPlayer, seedsPerPit, Player.HUMAN,
+                    1);
+            System.out.printf("%dx%d, depth %d, %d thread(s)%n",
+                    pitsPerPlayer, seedsPerPit, depth, threads);
+            System.out.printf("%10s %16s %12s %14s%n", "generator",
+                    "positions", "time [ms]", "positions/s");
+            long expected = -1;
+            for (Perft.Generator generator : Perft.Generator.values()) {
+                long start = System.nanoTime();
+                long positions = Perft.count(board, depth, generator, pool);
+                long nanos = Math.max(System.nanoTime() - start, 1);
+                System.out.printf("%10s %16d %12.1f %14.0f%n", generator,
+                        positions, nanos / 1e6, positions * 1e9 / nanos);
+                if (expected >= 0 && positions != expected) {
+                    System.err.println("The generators disagree.");
+                    System.exit(1);
+                }
+                expected = positions;
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package de.uni_passau.fim.prog2.kalah.tools;
+
+import de.uni_passau.fim.prog2.kalah.model.Board;
+import de.uni_passau.fim.prog2.kalah.model.Kalah;
+import de.uni_passau.fim.prog2.kalah.model.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates reproducible positions for the measuring tools.
+ */
+final class Positions {
+
+    private Positions() throws InstantiationException {
+        throw new InstantiationException(
+                "Positions should not be constructed.");
+    }
+
+    /**
+     * Creates positions in which the machine is to move by playing a few
+     * random moves from the initial position. The {@code n}-th position is
+     * the first one after at least {@code 2 * n} moves.
+     *
+     * @param pitsPerPlayer The number of pits per player.
+     * @param seedsPerPit   The initial number of seeds per pit.
+     * @param level         The level the positions are set to.
+     * @param count         The number of positions.
+     * @param seed          The seed of the random moves.
+     * @return The positions.
+     * @throws InterruptedException If creating the positions was interrupted.
+     */
+    static List<Kalah> random(int pitsPerPlayer, int seedsPerPit, int level,
+                              int count, long seed)
+            throws InterruptedException {
+        Random random = new Random(seed);
+        List<Kalah> positions = new ArrayList<>(count);
+        while (positions.size() < count) {
+            Kalah kalah = new Kalah(pitsPerPlayer, seedsPerPit,
+                    Player.COMPUTER, 1);
+            kalah.setSearchPool(null);
+            kalah.setTranspositionTableSize(1);
+            Board board = kalah;
+            int plies = positions.size() * 2;
+            while (!board.isGameOver()
+                    && (plies > 0 || board.next() != Player.COMPUTER)) {
+                if (board.next() == Player.HUMAN) {
+                    int pit;
+                    do {
+                        pit = 1 + random.nextInt(pitsPerPlayer);
+                    } while (board.getSeeds(pit) == 0);
+                    board = board.move(pit);
+                } else {
+                    board = board.machineMove();
+                }
+                plies--;
+            }
+            if (!board.isGameOver()) {
+                board.setLevel(level);
+                positions.add((Kalah) board);
+            }
+        }
+        return positions;
+    }
+}
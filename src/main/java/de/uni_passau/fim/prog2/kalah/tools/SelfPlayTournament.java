@@ -0,0 +1,311 @@
+package de.uni_passau.fim.prog2.kalah.tools;
+
+import de.uni_passau.fim.prog2.kalah.model.Board;
+import de.uni_passau.fim.prog2.kalah.model.Kalah;
+import de.uni_passau.fim.prog2.kalah.model.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Lets the machine play against itself with different settings and reports
+ * how each setting performs. Every pair of engines plays one game per
+ * number of pits, number of seeds and opening player, and each such game
+ * once with either engine on the machine's side. The machine's side chooses
+ * its moves by {@link Board#machineMove()}, the human's side plays the best
+ * move of {@link Board#rankMoves()}, which is the same search seen from the
+ * other side. The opening book is disabled, so that both sides pay for
+ * their searches.
+ * <p>
+ * Usage: {@code SelfPlayTournament [--engines 1,2,3,500ms] [--pits 4,5,6]
+ * [--seeds 3,4,5] [--threads n]}. An engine is either a level or a thinking
+ * time in milliseconds. The games run in parallel on {@code n} threads, the
+ * number of processors by default.
+ * <p>
+ * The Elo estimates are maximum likelihood ratings of the Bradley-Terry
+ * model, with draws counting as half a win and every pair of engines
+ * credited one extra drawn game, so that engines which win or lose all
+ * games get finite ratings. They are relative to the average of all
+ * engines.
+ */
+public final class SelfPlayTournament {
+
+    private static final String DEFAULT_ENGINES = "1,2,3,4,5,6";
+    private static final String DEFAULT_PITS = "4,5,6,7";
+    private static final String DEFAULT_SEEDS = "3,4,5,6";
+    private static final int TABLE_SIZE_MB = 4;
+    private static final int RATING_ITERATIONS = 1000;
+
+    private SelfPlayTournament() throws InstantiationException {
+        throw new InstantiationException(
+                "SelfPlayTournament should not be constructed.");
+    }
+
+    /**
+     * Entry point of the tournament.
+     *
+     * @param args The options described above, all optional.
+     * @throws InterruptedException If the tournament was interrupted.
+     * @throws ExecutionException   If a game failed.
+     */
+    public static void main(String[] args)
+            throws InterruptedException, ExecutionException {
+        String engineList = DEFAULT_ENGINES;
+        String pitList = DEFAULT_PITS;
+        String seedList = DEFAULT_SEEDS;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int k = 0; k + 1 < args.length; k += 2) {
+            switch (args[k]) {
+                case "--engines" -> engineList = args[k + 1];
+                case "--pits" -> pitList = args[k + 1];
+                case "--seeds" -> seedList = args[k + 1];
+                case "--threads" -> threads = Integer.parseInt(args[k + 1]);
+                default -> throw new IllegalArgumentException(
+                        "Unknown option " + args[k] + ".");
+            }
+        }
+        List<Engine> engines = new ArrayList<>();
+        for (String spec : engineList.split(",")) {
+            engines.add(Engine.parse(spec.trim()));
+        }
+        if (engines.size() < 2) {
+            throw new IllegalArgumentException(
+                    "At least two engines are needed.");
+        }
+        List<Game> games = new ArrayList<>();
+        for (int pits : parse(pitList)) {
+            for (int seeds : parse(seedList)) {
+                for (Player opening : new Player[] {Player.HUMAN,
+                        Player.COMPUTER}) {
+                    for (int a = 0; a < engines.size(); a++) {
+                        for (int b = a + 1; b < engines.size(); b++) {
+                            games.add(new Game(pits, seeds, opening, a, b));
+                            games.add(new Game(pits, seeds, opening, b, a));
+                        }
+                    }
+                }
+            }
+        }
+        System.out.printf("%d engines, %d games on %d thread(s)%n",
+                engines.size(), games.size(), threads);
+        Standings standings = new Standings(engines.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<Result>> results = new ArrayList<>(games.size());
+            for (Game game : games) {
+                results.add(executor.submit(() -> play(game, engines)));
+            }
+            for (int k = 0; k < results.size(); k++) {
+                standings.add(games.get(k), results.get(k).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        System.out.printf("finished in %.1f s%n%n",
+                (System.nanoTime() - start) / 1e9);
+        standings.print(engines);
+    }
+
+    /**
+     * Plays a game to its end.
+     */
+    private static Result play(Game game, List<Engine> engines)
+            throws InterruptedException {
+        Kalah start = new Kalah(game.pits(), game.seeds(), game.opening(), 1);
+        start.setSearchPool(null);
+        start.setOpeningBook(false);
+        start.setTranspositionTableSize(TABLE_SIZE_MB);
+        Engine machine = engines.get(game.machine());
+        Engine human = engines.get(game.human());
+        Board board = start;
+        long[] nanos = new long[2];
+        int[] moves = new int[2];
+        while (!board.isGameOver()) {
+            boolean machineSide = board.next() == Player.COMPUTER;
+            Engine engine = machineSide ? machine : human;
+            board.setLevel(engine.level());
+            board.setThinkingTime(engine.thinkingTime());
+            long before = System.nanoTime();
+            board = machineSide ? board.machineMove()
+                    : board.move(board.rankMoves().get(0).pit());
+            int side = machineSide ? 0 : 1;
+            nanos[side] += System.nanoTime() - before;
+            moves[side]++;
+        }
+        return new Result(board.getWinner(), nanos, moves);
+    }
+
+    private static int[] parse(String list) {
+        String[] parts = list.split(",");
+        int[] values = new int[parts.length];
+        for (int k = 0; k < parts.length; k++) {
+            values[k] = Integer.parseInt(parts[k].trim());
+        }
+        return values;
+    }
+
+    /**
+     * The settings of one participant.
+     *
+     * @param name         The name in the report.
+     * @param level        The level of the search.
+     * @param thinkingTime The thinking time in milliseconds, {@code 0} to
+     *                     search up to the level.
+     */
+    private record Engine(String name, int level, long thinkingTime) {
+
+        private static Engine parse(String spec) {
+            if (spec.endsWith("ms")) {
+                long millis = Long.parseLong(
+                        spec.substring(0, spec.length() - 2));
+                return new Engine(spec, 1, millis);
+            }
+            return new Engine("level " + spec, Integer.parseInt(spec), 0);
+        }
+    }
+
+    /**
+     * A game of the tournament.
+     *
+     * @param pits    The number of pits per player.
+     * @param seeds   The number of seeds per pit.
+     * @param opening The player who opens.
+     * @param machine The index of the engine on the machine's side.
+     * @param human   The index of the engine on the human's side.
+     */
+    private record Game(int pits, int seeds, Player opening, int machine,
+                        int human) {
+    }
+
+    /**
+     * The outcome of a game.
+     *
+     * @param winner The winning side, {@link Player#NOBODY} for a draw.
+     * @param nanos  The time spent thinking by the machine's and the
+     *               human's side.
+     * @param moves  The number of moves of the machine's and the human's
+     *               side.
+     */
+    private record Result(Player winner, long[] nanos, int[] moves) {
+    }
+
+    /**
+     * The results of all engines so far.
+     */
+    private static final class Standings {
+
+        private final int[] wins;
+        private final int[] draws;
+        private final int[] losses;
+        private final long[] nanos;
+        private final long[] moves;
+
+        /**
+         * The points scored by the first engine against the second.
+         */
+        private final double[][] points;
+
+        /**
+         * The number of games between two engines.
+         */
+        private final int[][] games;
+
+        private Standings(int engines) {
+            wins = new int[engines];
+            draws = new int[engines];
+            losses = new int[engines];
+            nanos = new long[engines];
+            moves = new long[engines];
+            points = new double[engines][engines];
+            games = new int[engines][engines];
+        }
+
+        private void add(Game game, Result result) {
+            int machine = game.machine();
+            int human = game.human();
+            nanos[machine] += result.nanos()[0];
+            moves[machine] += result.moves()[0];
+            nanos[human] += result.nanos()[1];
+            moves[human] += result.moves()[1];
+            games[machine][human]++;
+            games[human][machine]++;
+            switch (result.winner()) {
+                case COMPUTER -> {
+                    wins[machine]++;
+                    losses[human]++;
+                    points[machine][human] += 1;
+                }
+                case HUMAN -> {
+                    wins[human]++;
+                    losses[machine]++;
+                    points[human][machine] += 1;
+                }
+                default -> {
+                    draws[machine]++;
+                    draws[human]++;
+                    points[machine][human] += 0.5;
+                    points[human][machine] += 0.5;
+                }
+            }
+        }
+
+        private void print(List<Engine> engines) {
+            double[] elo = ratings();
+            System.out.printf("%-10s %7s %7s %7s %7s %7s %7s %10s%n",
+                    "engine", "games", "wins", "draws", "losses", "score",
+                    "elo", "ms/move");
+            for (int k = 0; k < engines.size(); k++) {
+                int played = wins[k] + draws[k] + losses[k];
+                System.out.printf("%-10s %7d %7d %7d %7d %6.1f%% %+7.0f "
+                                + "%10.2f%n", engines.get(k).name(), played,
+                        wins[k], draws[k], losses[k],
+                        100.0 * (wins[k] + 0.5 * draws[k]) / played, elo[k],
+                        moves[k] == 0 ? 0.0 : nanos[k] / 1e6 / moves[k]);
+            }
+        }
+
+        /**
+         * Fits the strengths of the Bradley-Terry model by minorization
+         * maximization and converts them to Elo ratings.
+         */
+        private double[] ratings() {
+            int n = wins.length;
+            double[] strength = new double[n];
+            Arrays.fill(strength, 1.0);
+            for (int iteration = 0; iteration < RATING_ITERATIONS;
+                 iteration++) {
+                double[] next = new double[n];
+                for (int i = 0; i < n; i++) {
+                    double scored = 0;
+                    double expected = 0;
+                    for (int j = 0; j < n; j++) {
+                        if (j != i) {
+                            // one drawn game between every pair of engines
+                            scored += points[i][j] + 0.5;
+                            expected += (games[i][j] + 1)
+                                    / (strength[i] + strength[j]);
+                        }
+                    }
+                    next[i] = expected == 0 ? 1.0 : scored / expected;
+                }
+                strength = next;
+            }
+            double[] elo = new double[n];
+            double mean = 0;
+            for (int i = 0; i < n; i++) {
+                elo[i] = 400 * Math.log10(strength[i]);
+                mean += elo[i] / n;
+            }
+            for (int i = 0; i < n; i++) {
+                elo[i] -= mean;
+            }
+            return elo;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package de.uni_passau.fim.prog2.kalah.tools;
+
+import de.uni_passau.fim.prog2.kalah.model.Board;
+import de.uni_passau.fim.prog2.kalah.model.Kalah;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how long the machine needs to search a set of positions up to a
+ * fixed level with an increasing number of threads searching together. Each
+ * search starts with an empty transposition table.
+ * <p>
+ * Usage: {@code SmpBenchmark [maxThreads]}, where {@code maxThreads}
+ * defaults to the number of available processors.
+ */
+public final class SmpBenchmark {
+
+    private static final int POSITIONS = 4;
+    private static final int TABLE_SIZE_MB = 64;
+    private static final long RANDOM_SEED = 20230101L;
+
+    /**
+     * The benchmarked configurations as pits per player, seeds per pit and
+     * level.
+     */
+    private static final int[][] CONFIGURATIONS = {
+            {Board.DEFAULT_PITS_PER_PLAYER, Board.DEFAULT_SEEDS_PER_PIT, 8},
+            {12, 20, 5},
+    };
+
+    private SmpBenchmark() throws InstantiationException {
+        throw new InstantiationException(
+                "SmpBenchmark should not be constructed.");
+    }
+
+    /**
+     * Entry point of the benchmark.
+     *
+     * @param args The maximal number of threads, optional.
+     * @throws InterruptedException If the benchmark was interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0
+                ? Integer.parseInt(args[0])
+                : Runtime.getRuntime().availableProcessors();
+        for (int[] configuration : CONFIGURATIONS) {
+            List<Kalah> positions = Positions.random(configuration[0],
+                    configuration[1], configuration[2], POSITIONS,
+                    RANDOM_SEED);
+            // warm up the JIT compiler before measuring
+            measure(positions, 1);
+            System.out.printf("%dx%d, level %d, %d positions%n",
+                    configuration[0], configuration[1], configuration[2],
+                    positions.size());
+            System.out.printf("%8s %12s %8s%n", "threads", "time [ms]",
+                    "speedup");
+            long single = 0;
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                long nanos = measure(positions, threads);
+                if (threads == 1) {
+                    single = nanos;
+                }
+                System.out.printf("%8d %12.1f %8.2f%n", threads,
+                        nanos / 1e6, (double) single / nanos);
+            }
+            System.out.println();
+        }
+    }
+
+    private static long measure(List<Kalah> positions, int threads)
+            throws InterruptedException {
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads - 1) : null;
+        long total = 0;
+        try {
+            for (Kalah position : positions) {
+                Kalah board = (Kalah) position.clone();
+                board.setTranspositionTableSize(TABLE_SIZE_MB);
+                board.setSearchPool(pool);
+                board.setSearchThreads(threads);
+                board.setOpeningBook(false);
+                long start = System.nanoTime();
+                board.machineMove();
+                total += System.nanoTime() - start;
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+        return total;
+    }
+}
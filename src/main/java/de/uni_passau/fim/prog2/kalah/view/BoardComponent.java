@@ -0,0 +1,342 @@
+package de.uni_passau.fim.prog2.kalah.view;
+
+import de.uni_passau.fim.prog2.kalah.model.Board;
+import de.uni_passau.fim.prog2.kalah.model.Player;
+
+import javax.swing.JComponent;
+import javax.swing.UIManager;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * The visual representation of the actual game of Kalah, painted as a
+ * single component. Shows all pits with their seeds and numbers, and
+ * highlights the last move.
+ * <p>
+ * The machine's store is on the left and the human's store on the right.
+ * The machine's pits form the upper row and the human's pits the lower
+ * row, so that opposite pits are above each other. Everything which only
+ * depends on the size of the component and the number of pits is painted
+ * once into an image, which is reused until either changes. Updates repaint
+ * only the pits which changed.
+ */
+public class BoardComponent extends JComponent {
+
+    private static final Color BOARD_COLOR = fromRGB(0xda, 0xa0, 0x6d);
+    private static final Color PIT_COLOR = fromRGB(0xc8, 0x8c, 0x5a);
+    private static final Color NUMBER_COLOR = fromRGB(0x6e, 0x26, 0x0e);
+    private static final Font COUNT_FONT
+            = new Font("sans-serif", Font.PLAIN, 28);
+    private static final Font NUMBER_FONT = UIManager.getFont("Label.font");
+
+    /**
+     * The space above and below the pit numbers in pixels.
+     */
+    private static final int NUMBER_PADDING = 5;
+
+    /**
+     * The space between the border of a pit and its well in pixels.
+     */
+    private static final int WELL_INSET = 6;
+
+    private static final int PREFERRED_COLUMN_WIDTH = 60;
+    private static final int PREFERRED_HEIGHT = 200;
+
+    private Board board;
+    private int pitsPerPlayer;
+
+    /**
+     * The seeds per pit as shown, indexed by pit number.
+     */
+    private String[] counts;
+    private int source;
+    private int target;
+    private boolean waiting;
+
+    /**
+     * The area of each pit, indexed by pit number, for the current size.
+     */
+    private Rectangle[] cells;
+    private int layoutWidth;
+    private int layoutHeight;
+    private BufferedImage background;
+
+    /**
+     * Creates a component which shows no board yet.
+     */
+    public BoardComponent() {
+        setOpaque(true);
+        setDoubleBuffered(true);
+        setBackground(BOARD_COLOR);
+    }
+
+    /**
+     * Shows a board, which may have a different number of pits than the
+     * board shown before.
+     *
+     * @param model A board instance.
+     */
+    public void setBoard(Board model) {
+        if (board == null || model.getPitsPerPlayer() != pitsPerPlayer) {
+            pitsPerPlayer = model.getPitsPerPlayer();
+            counts = new String[(pitsPerPlayer + 1) * 2 + 1];
+            cells = null;
+            background = null;
+            revalidate();
+        }
+        board = model;
+        for (int pit = 1; pit < counts.length; pit++) {
+            counts[pit] = String.valueOf(model.getSeeds(pit));
+        }
+        source = model.sourcePitOfLastMove();
+        target = model.targetPitOfLastMove();
+        waiting = isWaiting(model);
+        repaint();
+    }
+
+    /**
+     * Shows the new state of the board and repaints only the pits which
+     * changed since the last update.
+     *
+     * @param model A board instance with the updated state.
+     */
+    public void updatePits(Board model) {
+        if (board == null || model.getPitsPerPlayer() != pitsPerPlayer
+                || isWaiting(model) != waiting) {
+            setBoard(model);
+            return;
+        }
+        board = model;
+        for (int pit = 1; pit < counts.length; pit++) {
+            String count = String.valueOf(model.getSeeds(pit));
+            if (!count.equals(counts[pit])) {
+                counts[pit] = count;
+                repaintPit(pit);
+            }
+        }
+        int newSource = model.sourcePitOfLastMove();
+        int newTarget = model.targetPitOfLastMove();
+        if (newSource != source || newTarget != target) {
+            repaintPit(source);
+            repaintPit(target);
+            repaintPit(newSource);
+            repaintPit(newTarget);
+            source = newSource;
+            target = newTarget;
+        }
+    }
+
+    /**
+     * Finds the pit at a point of the component.
+     *
+     * @param point A point relative to the component.
+     * @return The number of the pit at the point, or {@code -1} if there is
+     * no pit.
+     */
+    public int pitAt(Point point) {
+        if (board == null) {
+            return -1;
+        }
+        layoutCells();
+        for (int pit = 1; pit < cells.length; pit++) {
+            if (cells[pit].contains(point)) {
+                return pit;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) {
+            return super.getPreferredSize();
+        }
+        return new Dimension((pitsPerPlayer + 2) * PREFERRED_COLUMN_WIDTH,
+                PREFERRED_HEIGHT);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (board == null) {
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+            return;
+        }
+        layoutCells();
+        if (background == null) {
+            background = paintBackground();
+        }
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.drawImage(background, 0, 0, null);
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                    RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2.setFont(COUNT_FONT);
+            FontMetrics metrics = g2.getFontMetrics();
+            Rectangle clip = g2.getClipBounds();
+            Color border = waiting ? Color.RED : Color.DARK_GRAY;
+            for (int pit = 1; pit < cells.length; pit++) {
+                Rectangle cell = cells[pit];
+                if (clip != null && !clip.intersects(cell)) {
+                    continue;
+                }
+                g2.setColor(border);
+                g2.drawRect(cell.x, cell.y, cell.width - 1, cell.height - 1);
+                g2.setColor(foreground(pit));
+                drawCentered(g2, metrics, counts[pit], cell);
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Computes the area of each pit for the current size, unless it is
+     * known already.
+     */
+    private void layoutCells() {
+        int width = getWidth();
+        int height = getHeight();
+        if (cells != null && width == layoutWidth && height == layoutHeight) {
+            return;
+        }
+        layoutWidth = width;
+        layoutHeight = height;
+        background = null;
+        int strip = stripHeight();
+        int top = strip;
+        int middle = Integer.max(top, height - strip);
+        int half = top + (middle - top) / 2;
+        int computerStore = (pitsPerPlayer + 1) * 2;
+        cells = new Rectangle[computerStore + 1];
+        cells[computerStore] = new Rectangle(columnX(0, width), top,
+                columnWidth(0, width), middle - top);
+        for (int i = 1; i <= pitsPerPlayer; i++) {
+            int x = columnX(i, width);
+            int w = columnWidth(i, width);
+            cells[computerStore - i] = new Rectangle(x, top, w, half - top);
+            cells[i] = new Rectangle(x, half, w, middle - half);
+        }
+        cells[pitsPerPlayer + 1] = new Rectangle(
+                columnX(pitsPerPlayer + 1, width),
+                top, columnWidth(pitsPerPlayer + 1, width), middle - top);
+    }
+
+    /**
+     * Paints the board without the seeds: the wells of the pits and the
+     * strips with the pit numbers above and below.
+     */
+    private BufferedImage paintBackground() {
+        int width = Integer.max(1, getWidth());
+        int height = Integer.max(1, getHeight());
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        BufferedImage image = configuration != null
+                ? configuration.createCompatibleImage(width, height)
+                : new BufferedImage(width, height,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = image.createGraphics();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                    RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                    RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2.setColor(BOARD_COLOR);
+            g2.fillRect(0, 0, width, height);
+            g2.setColor(PIT_COLOR);
+            for (int pit = 1; pit < cells.length; pit++) {
+                Rectangle cell = cells[pit];
+                int w = cell.width - 2 * WELL_INSET;
+                int h = cell.height - 2 * WELL_INSET;
+                if (w > 0 && h > 0) {
+                    g2.fillRoundRect(cell.x + WELL_INSET,
+                            cell.y + WELL_INSET, w, h, w / 2, w / 2);
+                }
+            }
+            int strip = stripHeight();
+            int bottom = Integer.max(strip, height - strip);
+            g2.setColor(NUMBER_COLOR);
+            g2.fillRect(0, 0, width, strip);
+            g2.fillRect(0, bottom, width, height - bottom);
+            g2.setFont(NUMBER_FONT);
+            g2.setColor(Color.WHITE);
+            FontMetrics metrics = g2.getFontMetrics();
+            int computerStore = (pitsPerPlayer + 1) * 2;
+            for (int column = 0; column <= pitsPerPlayer + 1; column++) {
+                int x = columnX(column, width);
+                int w = columnWidth(column, width);
+                String upper = String.valueOf(column == 0 ? computerStore
+                        : computerStore - column);
+                String lower = String.valueOf(column == 0 ? computerStore
+                        : column);
+                drawCentered(g2, metrics, upper,
+                        new Rectangle(x, 0, w, strip));
+                drawCentered(g2, metrics, lower,
+                        new Rectangle(x, bottom, w, height - bottom));
+            }
+        } finally {
+            g2.dispose();
+        }
+        return image;
+    }
+
+    private void repaintPit(int pit) {
+        if (pit < 1 || pit >= counts.length) {
+            return;
+        }
+        if (cells == null) {
+            repaint();
+        } else {
+            repaint(cells[pit]);
+        }
+    }
+
+    private Color foreground(int pit) {
+        if (pit == source && pit == target) {
+            return Color.ORANGE;
+        } else if (pit == source) {
+            return Color.RED;
+        } else if (pit == target) {
+            return Color.GREEN;
+        } else {
+            return Color.BLACK;
+        }
+    }
+
+    private int stripHeight() {
+        return getFontMetrics(NUMBER_FONT).getHeight() + 2 * NUMBER_PADDING;
+    }
+
+    private int columnX(int column, int width) {
+        return column * width / (pitsPerPlayer + 2);
+    }
+
+    private int columnWidth(int column, int width) {
+        return columnX(column + 1, width) - columnX(column, width);
+    }
+
+    private static boolean isWaiting(Board model) {
+        return model.isGameOver() || model.next() != Player.HUMAN;
+    }
+
+    private static void drawCentered(Graphics2D g2, FontMetrics metrics,
+                                     String text, Rectangle area) {
+        int x = area.x + (area.width - metrics.stringWidth(text)) / 2;
+        int y = area.y + (area.height - metrics.getHeight()) / 2
+                + metrics.getAscent();
+        g2.drawString(text, x, y);
+    }
+
+    private static Color fromRGB(int r, int g, int b) {
+        float[] hsb = Color.RGBtoHSB(r, g, b, null);
+        return Color.getHSBColor(hsb[0], hsb[1], hsb[2]);
+    }
+}
@@ -1,11 +1,15 @@
 package de.uni_passau.fim.prog2.kalah.view;
 
 import de.uni_passau.fim.prog2.kalah.model.GameSettings;
+import de.uni_passau.fim.prog2.kalah.model.SearchStatistics;
 
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.SwingConstants;
+import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.FlowLayout;
 import java.util.ArrayList;
@@ -19,6 +23,9 @@ public class ControlPanel extends JPanel {
     private final JComboBox<Integer> pitsPerPlayerControl;
     private final JComboBox<Integer> seedsPerPitControl;
     private final JComboBox<Integer> levelControl;
+    private final JCheckBox timeControl;
+    private final JPanel controls;
+    private final JLabel status;
 
     private List<JButton> buttons;
 
@@ -32,14 +39,20 @@ public class ControlPanel extends JPanel {
     private static final Integer[] LEVEL_SETTINGS
             = new Integer[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
 
+    private static final long THINKING_TIME = 500;
+
     /**
      * Creates new panel and control elements contained with realistic
      * options and default values.
      */
     public ControlPanel() {
         super();
-        setLayout(new FlowLayout());
+        setLayout(new BorderLayout());
         setBackground(Color.DARK_GRAY);
+        controls = new JPanel(new FlowLayout());
+        controls.setOpaque(false);
+        status = new JLabel(" ", SwingConstants.CENTER);
+        status.setForeground(Color.LIGHT_GRAY);
 
         // DropDown Menus
         pitsPerPlayerControl
@@ -51,6 +64,11 @@ public class ControlPanel extends JPanel {
         levelControl
                 = new JComboBox<>(LEVEL_SETTINGS);
         levelControl.setSelectedIndex(2);
+        timeControl = new JCheckBox("timed");
+        timeControl.setForeground(Color.WHITE);
+        timeControl.setOpaque(false);
+        timeControl.setToolTipText("Search as deep as possible within "
+                + THINKING_TIME + " ms instead of up to the level.");
 
         // DropDown Menu Labels
         JLabel pLabel = new JLabel("p:");
@@ -60,14 +78,17 @@ public class ControlPanel extends JPanel {
         JLabel lLabel = new JLabel("l:");
         lLabel.setForeground(Color.WHITE);
 
-        add(pLabel);
-        add(pitsPerPlayerControl);
-        add(sLabel);
-        add(seedsPerPitControl);
-        add(lLabel);
-        add(levelControl);
+        controls.add(pLabel);
+        controls.add(pitsPerPlayerControl);
+        controls.add(sLabel);
+        controls.add(seedsPerPitControl);
+        controls.add(lLabel);
+        controls.add(levelControl);
+        controls.add(timeControl);
 
         createButtons();
+        add(controls, BorderLayout.CENTER);
+        add(status, BorderLayout.SOUTH);
     }
 
     private void createButtons() {
@@ -85,10 +106,10 @@ public class ControlPanel extends JPanel {
         buttons.add(undoButton);
         buttons.add(quitButton);
 
-        add(newButton);
-        add(switchButton);
-        add(undoButton);
-        add(quitButton);
+        controls.add(newButton);
+        controls.add(switchButton);
+        controls.add(undoButton);
+        controls.add(quitButton);
     }
 
     /**
@@ -113,11 +134,23 @@ public class ControlPanel extends JPanel {
             throw new IllegalStateException("Not all settings selected.");
         } else {
 
-            return new GameSettings(
-                    (int) level, (int) seedsPerPit, (int) pitsPerPlayer);
+            long thinkingTime = timeControl.isSelected() ? THINKING_TIME : 0;
+            return new GameSettings((int) level, thinkingTime,
+                    (int) seedsPerPit, (int) pitsPerPlayer);
         }
     }
 
+    /**
+     * Shows how the machine found its last move in the status line.
+     *
+     * @param statistics The statistics of the machine's last move.
+     */
+    public void showStatistics(SearchStatistics statistics) {
+        String line = statistics.toStatusLine();
+        // a blank line keeps the height of the panel
+        status.setText(line.isEmpty() ? " " : line);
+    }
+
     /**
      * Returns a handle to the dropdown menu controlling the games level.
      *
@@ -126,4 +159,14 @@ public class ControlPanel extends JPanel {
     public JComboBox<Integer> getLevelControl() {
         return levelControl;
     }
+
+    /**
+     * Returns a handle to the check box switching between a fixed level and
+     * a fixed thinking time of the machine.
+     *
+     * @return handle to the time control
+     */
+    public JCheckBox getTimeControl() {
+        return timeControl;
+    }
 }
@@ -34,4 +34,9 @@ public enum NotificationType {
      * Notification for when the human tried to make an illegal move.
      */
     ILLEGAL_MOVE,
+
+    /**
+     * Notification for when the machine failed to calculate its move.
+     */
+    MACHINE_FAILURE,
 }
@@ -3,8 +3,10 @@ package de.uni_passau.fim.prog2.kalah.view;
 import de.uni_passau.fim.prog2.kalah.model.Board;
 import de.uni_passau.fim.prog2.kalah.model.GameSettings;
 import de.uni_passau.fim.prog2.kalah.model.Player;
+import de.uni_passau.fim.prog2.kalah.model.SearchStatistics;
 
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
@@ -18,7 +20,7 @@ import java.util.List;
  * The actual view containing all relevant parts of rendering the application.
  */
 public class View {
-    private BoardPanel boardPanel;
+    private final BoardComponent boardComponent;
     private final ControlPanel controlPanel;
     private final Container contentPane;
 
@@ -35,40 +37,48 @@ public class View {
         contentPane.setLayout(new BorderLayout());
         controlPanel = new ControlPanel();
         contentPane.add(controlPanel, BorderLayout.SOUTH);
+        boardComponent = new BoardComponent();
+        contentPane.add(boardComponent, BorderLayout.CENTER);
         contentPane.revalidate();
     }
 
     /**
-     * Updates the seeds inside the pit labels
+     * Updates the seeds inside the pits.
      *
      * @param model The Board instance with the updated state.
      */
     public void updatePits(Board model) {
-        boardPanel.updatePits(model);
+        boardComponent.updatePits(model);
     }
 
     /**
-     * Creates a new board panel based on an existing board.
+     * Shows a board which may have another number of pits than the board
+     * shown before.
      *
      * @param model A board instance.
      */
     public void createBoardPanel(Board model) {
-        if (boardPanel != null) {
-            contentPane.remove(boardPanel);
-        }
-        boardPanel = new BoardPanel(model);
-        contentPane.add(boardPanel, BorderLayout.CENTER);
+        boardComponent.setBoard(model);
         contentPane.revalidate();
-        contentPane.repaint();
     }
 
     /**
-     * Returns all labels representing single pits.
+     * Shows how the machine found its last move.
      *
-     * @return List of all pit labels.
+     * @param statistics The statistics of the machine's last move.
      */
-    public List<PitLabel> getAllPitLabels() {
-        return boardPanel.getPitLabels();
+    public void showStatistics(SearchStatistics statistics) {
+        controlPanel.showStatistics(statistics);
+    }
+
+    /**
+     * Returns the component showing the board, which tells the pit at a
+     * point on it.
+     *
+     * @return The board component.
+     */
+    public BoardComponent getBoardComponent() {
+        return boardComponent;
     }
 
     /**
@@ -98,6 +108,15 @@ public class View {
         return controlPanel.getLevelControl();
     }
 
+    /**
+     * Returns the check box responsible for selecting a fixed thinking time.
+     *
+     * @return JCheckBox for the thinking time.
+     */
+    public JCheckBox getTimeControl() {
+        return controlPanel.getTimeControl();
+    }
+
     /**
      * Notifies the user of relevant Events inside the model.
      *
@@ -140,6 +159,12 @@ public class View {
                         "Nobody wins. Tie with "
                                 + human + " for each player");
             }
+            case MACHINE_FAILURE -> {
+                JOptionPane.showMessageDialog(contentPane,
+                        "The machine failed to calculate its move. "
+                                + "Please start a new game.",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+            }
             default -> {
                 Toolkit.getDefaultToolkit().beep();
             }
@@ -0,0 +1,41 @@
+package de.uni_passau.fim.prog2.kalah.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that searching with a thinking time deepens as long as the depth
+ * limit cuts off any line of play, also when the transposition table still
+ * holds the scores of an earlier search of the same position.
+ */
+class DeepeningTest {
+
+    private static final long THINKING_TIME = 200;
+
+    @Test
+    void repeatedSearchIsNotShallower() throws InterruptedException {
+        Kalah board = new Kalah(Board.DEFAULT_PITS_PER_PLAYER, 6,
+                Player.COMPUTER, 1);
+        board.setSearchPool(null);
+        board.setThinkingTime(THINKING_TIME);
+        board.rankMoves();
+        int first = board.getSearchStatistics().depth();
+        board.rankMoves();
+        int second = board.getSearchStatistics().depth();
+        assertTrue(second >= first, "depth " + second + " after " + first);
+    }
+
+    @Test
+    void machineMoveAfterRankingIsNotShallower()
+            throws InterruptedException {
+        Kalah board = new Kalah(Board.DEFAULT_PITS_PER_PLAYER, 6,
+                Player.COMPUTER, 1);
+        board.setSearchPool(null);
+        board.setThinkingTime(THINKING_TIME);
+        board.rankMoves();
+        int ranked = board.getSearchStatistics().depth();
+        int played = board.machineMove().getSearchStatistics().depth();
+        assertTrue(played >= ranked, "depth " + played + " after " + ranked);
+    }
+}
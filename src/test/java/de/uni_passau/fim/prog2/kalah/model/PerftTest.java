@@ -0,0 +1,84 @@
+package de.uni_passau.fim.prog2.kalah.model;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the rules of the game by counting the positions reached after a
+ * number of moves from the start of a game in which the human opens. Every
+ * count is known and must be reached by every generator, on the calling
+ * thread as well as on a pool.
+ */
+class PerftTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(Math.max(2,
+                Runtime.getRuntime().availableProcessors()));
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void classicalGameDepth1() throws InterruptedException {
+        assertCount(Board.DEFAULT_PITS_PER_PLAYER,
+                Board.DEFAULT_SEEDS_PER_PIT, 1, 6);
+    }
+
+    @Test
+    void classicalGameDepth4() throws InterruptedException {
+        assertCount(Board.DEFAULT_PITS_PER_PLAYER,
+                Board.DEFAULT_SEEDS_PER_PIT, 4, 904);
+    }
+
+    @Test
+    void classicalGameDepth8() throws InterruptedException {
+        assertCount(Board.DEFAULT_PITS_PER_PLAYER,
+                Board.DEFAULT_SEEDS_PER_PIT, 8, 387726);
+    }
+
+    @Test
+    void classicalGameDepth10() throws InterruptedException {
+        assertCount(Board.DEFAULT_PITS_PER_PLAYER,
+                Board.DEFAULT_SEEDS_PER_PIT, 10, 7557952);
+    }
+
+    @Test
+    void fourPitsOfFourDepth1() throws InterruptedException {
+        assertCount(4, 4, 1, 4);
+    }
+
+    @Test
+    void fourPitsOfFourDepth5() throws InterruptedException {
+        assertCount(4, 4, 5, 644);
+    }
+
+    @Test
+    void fourPitsOfFourDepth10() throws InterruptedException {
+        assertCount(4, 4, 10, 239667);
+    }
+
+    private static void assertCount(int pitsPerPlayer, int seedsPerPit,
+                                    int depth, long expected)
+            throws InterruptedException {
+        Kalah board = new Kalah(pitsPerPlayer, seedsPerPit, Player.HUMAN, 1);
+        for (Perft.Generator generator : Perft.Generator.values()) {
+            assertEquals(expected,
+                    Perft.count(board, depth, generator, null),
+                    generator + " on the calling thread");
+            assertEquals(expected,
+                    Perft.count(board, depth, generator, pool),
+                    generator + " on a pool");
+        }
+    }
+}